@@ -2,34 +2,90 @@ package com.example.copilotdemo.controller;
 
 import com.example.copilotdemo.model.Department;
 import com.example.copilotdemo.model.Employee;
+import com.example.copilotdemo.model.EmployeeRow;
+import com.example.copilotdemo.model.EmployeeSort;
 import com.example.copilotdemo.repository.EmployeeRepository;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Controller
 @RequestMapping("/employees")
 public class EmployeeController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final EmployeeRepository employeeRepository;
 
     public EmployeeController(EmployeeRepository employeeRepository) {
         this.employeeRepository = employeeRepository;
-    }    @ModelAttribute("departments")
+    }
+
+    @ModelAttribute("departments")
     public Department[] getDepartments() {
         return Department.values();
     }
 
+    @ModelAttribute("sortOptions")
+    public EmployeeSort[] getSortOptions() {
+        return EmployeeSort.values();
+    }
+
     @GetMapping
-    public String listEmployees(Model model) {
-        model.addAttribute("employees", employeeRepository.findAll());
+    @Transactional(readOnly = true)
+    public String listEmployees(@RequestParam(defaultValue = "NAME") EmployeeSort sort,
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(required = false) String afterKey,
+                                @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                Model model) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // Fetch one extra row to find out whether there is a next page without a COUNT query
+        List<EmployeeRow> rows = findPage(sort, after, afterKey, Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<EmployeeRow> employees = hasNext ? rows.subList(0, pageSize) : rows;
+
+        model.addAttribute("employees", employees);
+        model.addAttribute("sort", sort);
+        model.addAttribute("size", pageSize);
+        model.addAttribute("firstPage", after == null);
+        model.addAttribute("nextAfter", hasNext ? employees.getLast().getId() : null);
+        model.addAttribute("nextAfterKey", hasNext ? sortKey(sort, employees.getLast()) : null);
         return "employees/list";
     }
 
+    @GetMapping("/export")
+    @Transactional(readOnly = true)
+    public void exportEmployees(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"");
+
+        PrintWriter writer = response.getWriter();
+        writer.println("id,name,email,department,salary");
+        // Projected rows are not managed, so the persistence context stays empty however many rows stream by
+        try (Stream<EmployeeRow> employees = employeeRepository.streamAllOrderById()) {
+            employees.forEach(employee -> writer.println(employee.getId() + ","
+                    + csv(employee.getName()) + ","
+                    + csv(employee.getEmail()) + ","
+                    + employee.getDepartment() + ","
+                    + employee.getSalary()));
+        }
+        writer.flush();
+    }
+
     @GetMapping("/new")
     public String showCreateForm(Model model) {
         model.addAttribute("employee", new Employee());
@@ -57,4 +113,44 @@ public class EmployeeController {
         employeeRepository.deleteById(id);
         return "redirect:/employees";
     }
+
+    /**
+     * The cursor is the sort key and id of the last row shown, so the next page does not depend on that
+     * row still existing. A cursor without its sort key starts over from the first page.
+     */
+    private List<EmployeeRow> findPage(EmployeeSort sort, Long after, String afterKey, Limit limit) {
+        if (after == null || (sort != EmployeeSort.ID && afterKey == null)) {
+            return switch (sort) {
+                case ID -> employeeRepository.findFirstPageById(limit);
+                case NAME -> employeeRepository.findFirstPageByName(limit);
+                case DEPARTMENT -> employeeRepository.findFirstPageByDepartment(limit);
+                case SALARY -> employeeRepository.findFirstPageBySalary(limit);
+            };
+        }
+        return switch (sort) {
+            case ID -> employeeRepository.findPageAfterById(after, limit);
+            case NAME -> employeeRepository.findPageAfterByName(afterKey, after, limit);
+            case DEPARTMENT -> employeeRepository.findPageAfterByDepartment(Department.valueOf(afterKey), after, limit);
+            case SALARY -> employeeRepository.findPageAfterBySalary(Double.valueOf(afterKey), after, limit);
+        };
+    }
+
+    private static String sortKey(EmployeeSort sort, EmployeeRow row) {
+        return switch (sort) {
+            case ID -> null;
+            case NAME -> row.getName();
+            case DEPARTMENT -> row.getDepartment().name();
+            case SALARY -> row.getSalary().toString();
+        };
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
 }
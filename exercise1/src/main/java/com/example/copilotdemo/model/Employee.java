@@ -6,6 +6,12 @@ import lombok.Data;
 
 @Data
 @Entity
+@Table(indexes = {
+    // Composite (sort key, id) indexes back the keyset-paginated list views
+    @Index(name = "idx_employee_name_id", columnList = "name, id"),
+    @Index(name = "idx_employee_department_id", columnList = "department, id"),
+    @Index(name = "idx_employee_salary_id", columnList = "salary, id")
+})
 public class Employee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,17 @@
+package com.example.copilotdemo.model;
+
+/**
+ * Read-only projection of the columns shown in the employee list and CSV export. Rows are backed by
+ * the query's result tuple, so they never enter the persistence context or get dirty-checked.
+ */
+public interface EmployeeRow {
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    Department getDepartment();
+
+    Double getSalary();
+}
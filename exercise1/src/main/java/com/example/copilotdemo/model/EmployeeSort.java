@@ -0,0 +1,18 @@
+package com.example.copilotdemo.model;
+
+public enum EmployeeSort {
+    ID("ID"),
+    NAME("Name"),
+    DEPARTMENT("Department"),
+    SALARY("Salary");
+
+    private final String displayName;
+
+    EmployeeSort(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -1,7 +1,67 @@
 package com.example.copilotdemo.repository;
 
+import com.example.copilotdemo.model.Department;
 import com.example.copilotdemo.model.Employee;
+import com.example.copilotdemo.model.EmployeeRow;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+
+    // Listings select only the projected columns into EmployeeRow instead of hydrating entities
+    String SELECT_ROW = "SELECT e.id AS id, e.name AS name, e.email AS email, e.department AS department, "
+            + "e.salary AS salary FROM Employee e ";
+
+    // Keyset pagination: every page seeks past the (sort key, id) of the last row of the previous page,
+    // both carried in the cursor, so each page is a bounded index range scan regardless of depth and
+    // still continues in order when that row has been deleted in the meantime.
+
+    @Query(SELECT_ROW + "ORDER BY e.id")
+    List<EmployeeRow> findFirstPageById(Limit limit);
+
+    @Query(SELECT_ROW + "WHERE e.id > :afterId ORDER BY e.id")
+    List<EmployeeRow> findPageAfterById(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_ROW + "ORDER BY e.name, e.id")
+    List<EmployeeRow> findFirstPageByName(Limit limit);
+
+    @Query(SELECT_ROW + """
+            WHERE e.name > :afterName
+               OR (e.name = :afterName AND e.id > :afterId)
+            ORDER BY e.name, e.id""")
+    List<EmployeeRow> findPageAfterByName(@Param("afterName") String afterName,
+                                          @Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_ROW + "ORDER BY e.department, e.id")
+    List<EmployeeRow> findFirstPageByDepartment(Limit limit);
+
+    @Query(SELECT_ROW + """
+            WHERE e.department > :afterDepartment
+               OR (e.department = :afterDepartment AND e.id > :afterId)
+            ORDER BY e.department, e.id""")
+    List<EmployeeRow> findPageAfterByDepartment(@Param("afterDepartment") Department afterDepartment,
+                                                @Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_ROW + "ORDER BY e.salary, e.id")
+    List<EmployeeRow> findFirstPageBySalary(Limit limit);
+
+    @Query(SELECT_ROW + """
+            WHERE e.salary > :afterSalary
+               OR (e.salary = :afterSalary AND e.id > :afterId)
+            ORDER BY e.salary, e.id""")
+    List<EmployeeRow> findPageAfterBySalary(@Param("afterSalary") Double afterSalary,
+                                            @Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_ROW + "ORDER BY e.id")
+    Stream<EmployeeRow> streamAllOrderById();
 }
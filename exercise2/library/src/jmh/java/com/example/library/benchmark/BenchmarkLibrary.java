@@ -0,0 +1,131 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryApplication;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * A library application booted against its own temporary SQLite file. The catalog is generated as
+ * {@code books.json} and {@code members.xml} and loaded through the regular {@code DataLoader} on startup,
+ * with the schema created by Liquibase exactly as in production.
+ */
+final class BenchmarkLibrary implements AutoCloseable {
+    static final int MEMBERS = 1_000;
+
+    private static final String[] GENRES = {"Fiction", "Poetry", "History", "Science", "Programming"};
+    private static final String[] WORDS = {"River", "Garden", "Winter", "Machine", "Harbor", "Silence", "Empire", "Orbit"};
+
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkLibrary(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    static BenchmarkLibrary seed(int catalogSize) throws IOException {
+        Path directory = Files.createTempDirectory("library-benchmark");
+        Path dataDirectory = Files.createDirectories(directory.resolve("data"));
+        writeBooks(dataDirectory.resolve("books.json"), catalogSize);
+        writeMembers(dataDirectory.resolve("members.xml"));
+
+        // DataLoader reads its input from ${user.dir}/data; every benchmark runs in a forked JVM of its own
+        System.setProperty("user.dir", directory.toString());
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class)
+            .profiles("test")
+            .properties(
+                "spring.datasource.url=jdbc:sqlite:" + directory.resolve("library.db"),
+                "spring.main.web-application-type=none",
+                "spring.liquibase.enabled=true",
+                "spring.jpa.hibernate.ddl-auto=none",
+                "spring.jpa.show-sql=false",
+                "library.import.chunk-size=5000",
+                "logging.level.root=WARN")
+            .run();
+        return new BenchmarkLibrary(directory, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return bean(JdbcTemplate.class);
+    }
+
+    List<Long> bookIds(int count) {
+        return jdbc().queryForList("SELECT id FROM books ORDER BY id LIMIT ?", Long.class, count);
+    }
+
+    List<Long> memberIds(int count) {
+        return jdbc().queryForList("SELECT id FROM members ORDER BY id LIMIT ?", Long.class, count);
+    }
+
+    /**
+     * Adds closed loans spread evenly over all members and books, one day apart, newest last.
+     */
+    void seedHistory(int records) {
+        List<Long> members = memberIds(MEMBERS);
+        List<Long> books = bookIds(records);
+        long now = System.currentTimeMillis();
+        long day = 86_400_000L;
+        List<Object[]> rows = LongStream.range(0, records)
+            .mapToObj(i -> new Object[] {
+                members.get((int) (i % members.size())),
+                books.get((int) (i % books.size())),
+                now - (records - i) * day,
+                now - (records - i) * day + day / 2})
+            .toList();
+        jdbc().batchUpdate("INSERT INTO borrow_records (member_id, book_id, borrow_date, return_date) VALUES (?, ?, ?, ?)",
+            rows);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    static String title(long i) {
+        return WORDS[(int) (i % WORDS.length)] + " " + WORDS[(int) ((i / WORDS.length) % WORDS.length)] + " " + i;
+    }
+
+    private static void writeBooks(Path file, int count) throws IOException {
+        try (JsonGenerator json = new ObjectMapper().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (long i = 0; i < count; i++) {
+                json.writeStartObject();
+                json.writeStringField("isbn", "bench-" + i);
+                json.writeStringField("title", title(i));
+                json.writeStringField("author", "Author " + (i % 5_000));
+                json.writeStringField("genre", GENRES[(int) (i % GENRES.length)]);
+                json.writeBooleanField("available", true);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private static void writeMembers(Path file) throws IOException {
+        try (BufferedWriter xml = Files.newBufferedWriter(file)) {
+            xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<members>\n");
+            for (int i = 0; i < MEMBERS; i++) {
+                xml.write("  <member><name>Member " + i + "</name><email>member" + i
+                    + "@example.com</email><phone>555-" + i + "</phone></member>\n");
+            }
+            xml.write("</members>\n");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.library.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks once per thread count and writes one JSON result file per run, so results can be
+ * diffed between commits. {@link ImportBenchmark} only takes part in the single-threaded run. Started by {@code mvn -Pbenchmark verify -DskipTests}; narrow a run with
+ * {@code -Djmh.include=SearchBenchmark -Djmh.threads=1,8 -Djmh.catalogSizes=1000}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("jmh.include", ".*");
+        int[] threadCounts = Arrays.stream(System.getProperty("jmh.threads", "1,4,16").split(","))
+            .map(String::strip)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        String catalogSizes = System.getProperty("jmh.catalogSizes", "");
+        Path resultDirectory = Files.createDirectories(Path.of(System.getProperty("jmh.resultDir", "target/jmh")));
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultDirectory.resolve("results-" + threads + "-threads.json").toString());
+            if (threads > 1) {
+                // An import always runs alone against an empty database
+                options.exclude(ImportBenchmark.class.getSimpleName());
+            }
+            if (!catalogSizes.isBlank()) {
+                options.param("catalogSize", catalogSizes.split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.library.benchmark;
+
+import com.example.library.service.BorrowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Borrow and return round trips. Every benchmark thread works on its own member and book, so the
+ * numbers measure the write path and writer-pool contention rather than rejected borrows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BorrowBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private BenchmarkLibrary library;
+    private BorrowService borrowService;
+    private List<Long> bookIds;
+    private List<Long> memberIds;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws Exception {
+        library = BenchmarkLibrary.seed(catalogSize);
+        borrowService = library.bean(BorrowService.class);
+        bookIds = library.bookIds(BenchmarkLibrary.MEMBERS);
+        memberIds = library.memberIds(BenchmarkLibrary.MEMBERS);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        library.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Slot {
+        private long memberId;
+        private long bookId;
+
+        @Setup
+        public void claim(BorrowBenchmark benchmark) {
+            int slot = benchmark.nextSlot.getAndIncrement();
+            memberId = benchmark.memberIds.get(slot);
+            bookId = benchmark.bookIds.get(slot);
+        }
+    }
+
+    @Benchmark
+    public void borrowAndReturn(Slot slot) {
+        borrowService.borrowBook(slot.memberId, slot.bookId);
+        borrowService.returnBook(slot.memberId, slot.bookId);
+    }
+}
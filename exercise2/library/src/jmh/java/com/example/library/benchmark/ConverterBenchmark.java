@@ -0,0 +1,38 @@
+package com.example.library.benchmark;
+
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConverterBenchmark {
+
+    private final SQLiteLocalDateTimeConverter converter = new SQLiteLocalDateTimeConverter();
+    private final LocalDateTime dateTime = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+    private final Long epochMillis = converter.convertToDatabaseColumn(dateTime);
+
+    @Benchmark
+    public Long toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(dateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime toEntityAttribute() {
+        return converter.convertToEntityAttribute(epochMillis);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.CursorPage;
+import com.example.library.service.BorrowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow history reads against one closed loan per catalog entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private BenchmarkLibrary library;
+    private BorrowService borrowService;
+    private List<Long> memberIds;
+    private long middleRecordId;
+
+    @Setup
+    public void setUp() throws Exception {
+        library = BenchmarkLibrary.seed(catalogSize);
+        library.seedHistory(catalogSize);
+        borrowService = library.bean(BorrowService.class);
+        memberIds = library.memberIds(BenchmarkLibrary.MEMBERS);
+        middleRecordId = library.jdbc().queryForObject(
+            "SELECT id FROM borrow_records ORDER BY id LIMIT 1 OFFSET ?", Long.class, catalogSize / 2);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        library.close();
+    }
+
+    @Benchmark
+    public CursorPage<BorrowHistoryEntry> firstPage() {
+        return borrowService.getBorrowHistory(BorrowHistoryFilter.all(), null, BorrowService.DEFAULT_HISTORY_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<BorrowHistoryEntry> deepPage() {
+        return borrowService.getBorrowHistory(BorrowHistoryFilter.all(), middleRecordId, BorrowService.DEFAULT_HISTORY_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<BorrowHistoryEntry> memberPage() {
+        return borrowService.getBorrowHistory(BorrowHistoryFilter.forMember(randomMember()), null,
+            BorrowService.DEFAULT_HISTORY_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long streamMemberHistory(Blackhole blackhole) {
+        return borrowService.forEachHistoryEntry(BorrowHistoryFilter.forMember(randomMember()), blackhole::consume);
+    }
+
+    private long randomMember() {
+        return memberIds.get(ThreadLocalRandom.current().nextInt(memberIds.size()));
+    }
+}
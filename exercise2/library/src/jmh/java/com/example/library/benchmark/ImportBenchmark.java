@@ -0,0 +1,61 @@
+package com.example.library.benchmark;
+
+import com.example.library.util.DataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full initial import of the generated {@code books.json} and {@code members.xml} into an empty database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ImportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private BenchmarkLibrary library;
+    private DataLoader dataLoader;
+
+    @Setup
+    public void setUp() throws Exception {
+        library = BenchmarkLibrary.seed(catalogSize);
+        dataLoader = library.bean(DataLoader.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyDatabase() {
+        library.jdbc().update("DELETE FROM borrow_records");
+        library.jdbc().update("DELETE FROM books");
+        library.jdbc().update("DELETE FROM members");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        library.close();
+    }
+
+    @Benchmark
+    public void loadInitialData() {
+        dataLoader.loadInitialData();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.service.BookService;
+import com.example.library.service.CatalogService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private BenchmarkLibrary library;
+    private BookService bookService;
+    private CatalogService catalogService;
+    private List<Long> bookIds;
+
+    @Setup
+    public void setUp() throws Exception {
+        library = BenchmarkLibrary.seed(catalogSize);
+        bookService = library.bean(BookService.class);
+        catalogService = library.bean(CatalogService.class);
+        bookIds = library.bookIds(catalogSize);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        library.close();
+    }
+
+    @Benchmark
+    public List<Book> fullTextSearch() {
+        return bookService.searchBooks("Harbor Winter");
+    }
+
+    @Benchmark
+    public List<Book> fullTextSearchByAuthor() {
+        return bookService.searchBooks("Author 42");
+    }
+
+    @Benchmark
+    public List<Book> shortTermSearch() {
+        return bookService.searchBooks("Ri");
+    }
+
+    @Benchmark
+    public Optional<Book> lookupById() {
+        return bookService.getBookById(bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size())));
+    }
+
+    @Benchmark
+    public Optional<BookSummary> catalogLookupById() {
+        return catalogService.findById(bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size())));
+    }
+
+    @Benchmark
+    public int catalogIndexOf() {
+        return catalogService.snapshot().indexOf(bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size())));
+    }
+}
@@ -1,30 +1,66 @@
 package com.example.library;
 
+import com.example.library.config.LibraryRuntimeHints;
+import com.example.library.console.HeadlessCommands;
 import com.example.library.console.LibraryConsole;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.boot.CommandLineRunner;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.NativeDetector;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(LibraryRuntimeHints.class)
 public class LibraryApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(LibraryApplication.class, args);
+        SpringApplication application = new SpringApplication(LibraryApplication.class);
+        if (HeadlessCommands.isCommand(args)) {
+            // A single command needs neither the HTTP API nor the management server
+            if (NativeDetector.inNativeImage()) {
+                // The native image fixes the application type at build time, so only the servers are kept down
+                args = Stream.concat(Arrays.stream(args), Stream.of("--server.port=-1", "--management.server.port=-1"))
+                    .toArray(String[]::new);
+            } else {
+                application.setWebApplicationType(WebApplicationType.NONE);
+            }
+        }
+        application.run(args);
     }
 
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        // Picks up the java.time module so dates in API responses serialize as ISO strings
+        return JsonMapper.builder().findAndAddModules().build();
     }
 
     @Bean
     @Profile("!test") // The console menu will not run when test profile is active
-    public CommandLineRunner commandLineRunner(LibraryConsole libraryConsole) {
+    public ApplicationRunner commandLineRunner(LibraryConsole libraryConsole, HeadlessCommands headlessCommands,
+                                               ConfigurableApplicationContext context,
+                                               @Value("${library.console.enabled:true}") boolean consoleEnabled) {
         return args -> {
-            libraryConsole.start();
+            if (headlessCommands.handles(args)) {
+                int exitCode = headlessCommands.run(args);
+                System.exit(SpringApplication.exit(context, () -> exitCode));
+            }
+            if (consoleEnabled) {
+                libraryConsole.start();
+                // Leaving the console shuts down the HTTP API as well
+                SpringApplication.exit(context);
+            }
         };
     }
 }
@@ -0,0 +1,27 @@
+package com.example.library.api;
+
+import com.example.library.service.ConflictException;
+import com.example.library.service.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the services' exceptions to HTTP statuses: unknown members, books, loans and holds are 404,
+ * a book that is already borrowed or held is 409. Other exceptions, including plain
+ * {@link IllegalArgumentException}s from validation or the framework, keep Spring's default handling.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(NotFoundException.class)
+    public ProblemDetail handleNotFound(NotFoundException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ProblemDetail handleConflict(ConflictException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.library.api;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.service.BookService;
+import com.example.library.service.CatalogService;
+import com.example.library.service.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+public class BookController {
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final BookService bookService;
+    private final CatalogService catalogService;
+
+    @GetMapping
+    public List<Book> searchBooks(@RequestParam(name = "q", defaultValue = "") String query,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "" + BookService.DEFAULT_SEARCH_PAGE_SIZE) int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // The full-text search pages with page * size as its OFFSET, which must not overflow
+        if (page < 0 || page > Integer.MAX_VALUE / pageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page out of range");
+        }
+        return bookService.searchBooks(query, page, pageSize);
+    }
+
+    /**
+     * Answered from the in-memory catalog snapshot; the database is read only for titles it does not hold yet.
+     */
+    @GetMapping("/{id}")
+    public BookSummary getBook(@PathVariable Long id) {
+        return catalogService.findById(id)
+            .orElseThrow(() -> new NotFoundException("Book not found"));
+    }
+
+    @GetMapping("/isbn/{isbn}")
+    public BookSummary getBookByIsbn(@PathVariable String isbn) {
+        return catalogService.findByIsbn(isbn)
+            .orElseThrow(() -> new NotFoundException("Book not found"));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Book addBook(@RequestBody NewBook request) {
+        return bookService.addBook(request.title(), request.author(), request.isbn());
+    }
+
+    /**
+     * Answered from the in-memory inventory counters, without a database query.
+     */
+    @GetMapping("/{id}/availability")
+    public Availability getAvailability(@PathVariable Long id) {
+        return new Availability(id, bookService.isAnyCopyAvailable(id));
+    }
+
+    @PostMapping("/{id}/copies")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void addCopies(@PathVariable Long id, @RequestParam int count) {
+        if (count <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be positive");
+        }
+        if (!bookService.addCopies(id, count)) {
+            throw new NotFoundException("Book not found");
+        }
+    }
+
+    public record NewBook(String title, String author, String isbn) {
+    }
+
+    public record Availability(Long bookId, boolean available) {
+    }
+}
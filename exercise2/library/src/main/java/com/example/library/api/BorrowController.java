@@ -0,0 +1,114 @@
+package com.example.library.api;
+
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.BatchMode;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.BorrowRecord;
+import com.example.library.model.CursorPage;
+import com.example.library.model.OpenLoan;
+import com.example.library.service.BorrowService;
+import com.example.library.service.OverdueService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class BorrowController {
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final BorrowService borrowService;
+    private final OverdueService overdueService;
+
+    @PostMapping("/members/{memberId}/loans/{bookId}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Loan borrowBook(@PathVariable Long memberId, @PathVariable Long bookId) {
+        return Loan.of(borrowService.borrowBook(memberId, bookId));
+    }
+
+    @DeleteMapping("/members/{memberId}/loans/{bookId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void returnBook(@PathVariable Long memberId, @PathVariable Long bookId) {
+        borrowService.returnBook(memberId, bookId);
+    }
+
+    @PostMapping("/members/{memberId}/loans")
+    public List<BatchItemResult> borrowBooks(@PathVariable Long memberId, @RequestBody BatchRequest request) {
+        return borrowService.borrowBooks(memberId, request.validBookIds(), request.modeOrDefault());
+    }
+
+    @PostMapping("/members/{memberId}/returns")
+    public List<BatchItemResult> returnBooks(@PathVariable Long memberId, @RequestBody BatchRequest request) {
+        return borrowService.returnBooks(memberId, request.validBookIds(), request.modeOrDefault());
+    }
+
+    /**
+     * One page of borrow history, newest first. Pass the returned {@code nextCursor} as {@code after}
+     * to fetch the next page.
+     */
+    @GetMapping("/history")
+    public CursorPage<BorrowHistoryEntry> getBorrowHistory(
+            @RequestParam(required = false) Long memberId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BorrowService.DEFAULT_HISTORY_PAGE_SIZE) int size) {
+        var filter = new BorrowHistoryFilter(memberId, bookId, from, to);
+        return borrowService.getBorrowHistory(filter, after, Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Open loans past their due date, earliest due first.
+     */
+    @GetMapping("/loans/overdue")
+    public List<OpenLoan> getOverdueLoans() {
+        return overdueService.findOverdue(LocalDateTime.now());
+    }
+
+    /**
+     * Open loans falling due within the next {@code days} days, earliest due first.
+     */
+    @GetMapping("/loans/due")
+    public List<OpenLoan> getLoansDueSoon(@RequestParam(defaultValue = "3") int days) {
+        return overdueService.findDueWithin(LocalDateTime.now(), Math.clamp(days, 0, 365));
+    }
+
+    public record BatchRequest(List<Long> bookIds, BatchMode mode) {
+        List<Long> validBookIds() {
+            if (bookIds == null || bookIds.contains(null)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bookIds must be a list of book ids");
+            }
+            return bookIds;
+        }
+
+        BatchMode modeOrDefault() {
+            return mode != null ? mode : BatchMode.PARTIAL;
+        }
+    }
+
+    /**
+     * The loan just created; the borrow record itself holds an uninitialized book reference.
+     */
+    public record Loan(Long id, Long memberId, Long bookId, LocalDateTime borrowDate, LocalDateTime dueDate) {
+        static Loan of(BorrowRecord record) {
+            return new Loan(record.getId(), record.getMember().getId(), record.getBook().getId(),
+                record.getBorrowDate(), record.getDueDate());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.library.api;
+
+import com.example.library.model.QueuedHold;
+import com.example.library.service.HoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class HoldController {
+    private final HoldService holdService;
+
+    /**
+     * Queues the member for a book with no copy on the shelf; the next returned copy goes to the first holder.
+     */
+    @PostMapping("/members/{memberId}/holds/{bookId}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public QueuedHold placeHold(@PathVariable Long memberId, @PathVariable Long bookId) {
+        return holdService.placeHold(memberId, bookId);
+    }
+
+    @DeleteMapping("/members/{memberId}/holds/{bookId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelHold(@PathVariable Long memberId, @PathVariable Long bookId) {
+        holdService.cancelHold(memberId, bookId);
+    }
+
+    /**
+     * The holds on a book in the order they will be served.
+     */
+    @GetMapping("/books/{bookId}/holds")
+    public List<QueuedHold> getQueue(@PathVariable Long bookId) {
+        return holdService.getQueue(bookId);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.api;
+
+import com.example.library.model.CursorPage;
+import com.example.library.model.Member;
+import com.example.library.model.MemberSummary;
+import com.example.library.service.ActiveLoanService;
+import com.example.library.service.MemberService;
+import com.example.library.service.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/members")
+@RequiredArgsConstructor
+public class MemberController {
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final MemberService memberService;
+    private final ActiveLoanService activeLoanService;
+
+    /**
+     * One page of members in id order. Pass the returned {@code nextCursor} as {@code after} to fetch the next page.
+     */
+    @GetMapping
+    public CursorPage<MemberSummary> getMembers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + MemberService.DEFAULT_LIST_PAGE_SIZE) int size) {
+        return memberService.getMemberPage(after, Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+
+    @GetMapping("/{id}")
+    public Member getMember(@PathVariable Long id) {
+        return memberService.getMemberById(id)
+            .orElseThrow(() -> new NotFoundException("Member not found"));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Member registerMember(@RequestBody NewMember request) {
+        return memberService.registerMember(request.name(), request.email(), request.phone());
+    }
+
+    /**
+     * The books the member has on loan, served from the in-memory loan index.
+     */
+    @GetMapping("/{id}/loans")
+    public ActiveLoans getActiveLoans(@PathVariable Long id) {
+        return new ActiveLoans(id, activeLoanService.getActiveLoans(id), activeLoanService.remainingLoans(id));
+    }
+
+    public record NewMember(String name, String email, String phone) {
+    }
+
+    public record ActiveLoans(Long memberId, List<Long> bookIds, int remaining) {
+    }
+}
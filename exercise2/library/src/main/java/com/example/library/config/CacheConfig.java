@@ -0,0 +1,42 @@
+package com.example.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Read-through caches for catalog and member lookups, which are read on every borrow but rarely change.
+ * Caffeine bounds each cache by size (W-TinyLFU eviction) and age. Puts and evictions issued inside a
+ * transaction are deferred until it commits, so a rolled back write never reaches the cache.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS = "books";
+    public static final String MEMBERS = "members";
+
+    @Value("${library.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${library.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(BOOKS, MEMBERS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats());
+        // Absent rows are not cached, a lookup for an id that does not exist yet must not hide it once inserted
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
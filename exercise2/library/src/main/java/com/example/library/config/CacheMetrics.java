@@ -0,0 +1,49 @@
+package com.example.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reports hit, miss and eviction counters of the Caffeine caches behind {@link CacheConfig}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+    private final CacheManager cacheManager;
+
+    public List<CacheSnapshot> snapshot() {
+        return cacheManager.getCacheNames().stream()
+            .sorted()
+            .map(cacheManager::getCache)
+            .filter(Objects::nonNull)
+            .filter(cache -> cache.getNativeCache() instanceof Cache<?, ?>)
+            .map(cache -> toSnapshot(cache.getName(), (Cache<?, ?>) cache.getNativeCache()))
+            .toList();
+    }
+
+    private static CacheSnapshot toSnapshot(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheSnapshot(
+            name,
+            cache.estimatedSize(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            stats.hitRate());
+    }
+
+    public record CacheSnapshot(
+        String cacheName,
+        long size,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate) {
+    }
+}
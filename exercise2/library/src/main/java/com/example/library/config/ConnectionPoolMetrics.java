@@ -0,0 +1,127 @@
+package com.example.library.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection wait times and occupancy for the SQLite connection pools so they can be sized.
+ * Also publishes them to Micrometer as {@code library.datasource.*} meters tagged with the pool name;
+ * pools may be created before or after the registry is bound.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory, MeterBinder {
+    private final Map<String, PoolTracker> trackers = new ConcurrentSkipListMap<>();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        trackers.put(poolName, tracker);
+        MeterRegistry bound = registry;
+        if (bound != null) {
+            tracker.bindTo(poolName, bound);
+        }
+        return tracker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        trackers.forEach((poolName, tracker) -> tracker.bindTo(poolName, registry));
+    }
+
+    public List<PoolSnapshot> snapshot() {
+        return trackers.entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .toList();
+    }
+
+    public record PoolSnapshot(
+        String poolName,
+        int active,
+        int idle,
+        int total,
+        int pendingThreads,
+        long acquisitions,
+        long timeouts,
+        double averageWaitMillis,
+        double maxWaitMillis) {
+    }
+
+    private static final class PoolTracker implements IMetricsTracker {
+        private final PoolStats poolStats;
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+        private final LongAdder timeouts = new LongAdder();
+        private volatile Timer waitTimer;
+
+        private PoolTracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        private void bindTo(String poolName, MeterRegistry registry) {
+            waitTimer = Timer.builder("library.datasource.connection.wait")
+                .description("Time spent waiting for a pooled SQLite connection")
+                .tag("pool", poolName)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+            FunctionCounter.builder("library.datasource.connection.timeouts", timeouts, LongAdder::sum)
+                .tag("pool", poolName)
+                .register(registry);
+            Gauge.builder("library.datasource.connections.active", poolStats, PoolStats::getActiveConnections)
+                .tag("pool", poolName)
+                .register(registry);
+            Gauge.builder("library.datasource.connections.idle", poolStats, PoolStats::getIdleConnections)
+                .tag("pool", poolName)
+                .register(registry);
+            Gauge.builder("library.datasource.connections.pending", poolStats, PoolStats::getPendingThreads)
+                .tag("pool", poolName)
+                .register(registry);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulate(elapsedAcquiredNanos);
+            Timer timer = waitTimer;
+            if (timer != null) {
+                timer.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        private PoolSnapshot snapshot(String poolName) {
+            long count = acquisitions.sum();
+            double averageWaitNanos = count == 0 ? 0 : (double) totalWaitNanos.sum() / count;
+            return new PoolSnapshot(
+                poolName,
+                poolStats.getActiveConnections(),
+                poolStats.getIdleConnections(),
+                poolStats.getTotalConnections(),
+                poolStats.getPendingThreads(),
+                count,
+                timeouts.sum(),
+                averageWaitNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                (double) maxWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
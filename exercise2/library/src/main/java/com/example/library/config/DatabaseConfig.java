@@ -1,16 +1,29 @@
 package com.example.library.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.sqlite.SQLiteConfig;
 import lombok.extern.slf4j.Slf4j;
 import javax.sql.DataSource;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
+/**
+ * SQLite allows a single writer at a time but any number of concurrent readers in WAL mode,
+ * so connections are split into a one-connection writer pool and a reader pool. The primary
+ * {@link DataSource} hands out connections lazily and routes read-only transactions to the readers.
+ */
 @Slf4j
 @Configuration
 public class DatabaseConfig {
@@ -21,12 +34,89 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
 
+    @Value("${library.datasource.readers:4}")
+    private int readerPoolSize;
+
+    @Value("${library.datasource.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${library.sqlite.journal-mode:WAL}")
+    private SQLiteConfig.JournalMode journalMode;
+
+    @Value("${library.sqlite.synchronous:NORMAL}")
+    private SQLiteConfig.SynchronousMode synchronous;
+
+    @Value("${library.sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${library.sqlite.cache-size:-16000}")
+    private int cacheSize;
+
+    @Value("${library.sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${library.sql-trace.sample-rate:0.01}")
+    private double sqlTraceSampleRate;
+
+    @Value("${library.sql-trace.slow-threshold:100ms}")
+    private Duration sqlTraceSlowThreshold;
+
+    @Value("${library.sql-trace.capture-parameters:false}")
+    private boolean sqlTraceCaptureParameters;
+
+    @Value("${library.sql-trace.buffer-size:4096}")
+    private int sqlTraceBufferSize;
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    @Bean
+    public HikariDataSource writerDataSource(ConnectionPoolMetrics connectionPoolMetrics) {
+        createDatabaseDirectory();
+        // Opening the writer first creates the database file and switches it to the configured journal mode
+        HikariDataSource writer = createPool("sqlite-writer", 1, connectionPoolMetrics);
+        log.info("Configured SQLite writer pool with URL: {}", dbUrl);
+        return writer;
+    }
+
+    @Bean
+    public HikariDataSource readerDataSource(@Qualifier("writerDataSource") HikariDataSource writerDataSource,
+                                             ConnectionPoolMetrics connectionPoolMetrics) {
+        HikariDataSource reader = createPool("sqlite-reader", readerPoolSize, connectionPoolMetrics);
+        log.info("Configured SQLite reader pool with {} connections", readerPoolSize);
+        return reader;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "library.sql-trace.enabled", havingValue = "true")
+    public SqlTracer sqlTracer() {
+        return new SqlTracer(sqlTraceSampleRate, sqlTraceSlowThreshold, sqlTraceCaptureParameters, sqlTraceBufferSize);
+    }
+
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(@Qualifier("writerDataSource") HikariDataSource writerDataSource,
+                                 @Qualifier("readerDataSource") HikariDataSource readerDataSource,
+                                 ObjectProvider<SqlTracer> sqlTracerProvider) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource);
+        SqlTracer sqlTracer = sqlTracerProvider.getIfAvailable();
+        if (sqlTracer == null) {
+            return dataSource;
+        }
+        log.info("SQL trace enabled: sample rate {}, slow threshold {}", sqlTraceSampleRate, sqlTraceSlowThreshold);
+        return ProxyDataSourceBuilder.create(dataSource)
+            .name("library")
+            .listener(sqlTracer)
+            .build();
+    }
+
+    private void createDatabaseDirectory() {
         // Extract the database file path from the URL
         String dbPath = dbUrl.replace("jdbc:sqlite:", "");
-        Path dbFilePath = Paths.get(dbPath);
+        Path dbFilePath = Paths.get(dbPath).toAbsolutePath();
 
         // Create the data directory if it doesn't exist
         try {
@@ -36,11 +126,30 @@ public class DatabaseConfig {
             log.error("Error creating database directory: {}", e.getMessage());
             throw new RuntimeException("Failed to create database directory", e);
         }
+    }
+
+    private HikariDataSource createPool(String poolName, int size, ConnectionPoolMetrics connectionPoolMetrics) {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setJournalMode(journalMode);
+        sqliteConfig.setSynchronous(synchronous);
+        sqliteConfig.setBusyTimeout(busyTimeoutMs);
+        sqliteConfig.setCacheSize(cacheSize);
+        sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(dbUrl);
+        config.setDataSourceProperties(sqliteConfig.toProperties());
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        // SQLite connections are local file handles, they never go stale
+        config.setIdleTimeout(0);
+        config.setMaxLifetime(0);
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(connectionPoolMetrics);
 
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(dbUrl);
-        log.info("Configured database source with URL: {}", dbUrl);
-        return dataSource;
+        return new HikariDataSource(config);
     }
 }
@@ -0,0 +1,63 @@
+package com.example.library.config;
+
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowRecord;
+import com.example.library.model.CursorPage;
+import com.example.library.model.Hold;
+import com.example.library.model.Member;
+import com.example.library.model.MemberSummary;
+import com.example.library.model.OpenLoan;
+import com.example.library.model.QueuedHold;
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+/**
+ * Reflection and resource hints for the native image that Spring AOT cannot infer on its own. Entities and
+ * repositories are already covered by the JPA AOT processing; what is left is data binding outside Spring MVC
+ * (Jackson reads {@link Book} from {@code books.json}, JAXB binds {@link Member} from {@code members.xml}),
+ * constructor expressions in JPQL and the Liquibase changelogs. The SQLite native library is extracted by the
+ * feature shipped in sqlite-jdbc, Hibernate, Liquibase and Caffeine internals come from the GraalVM
+ * reachability metadata repository.
+ */
+public class LibraryRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Bound field by field by Jackson, JAXB and Hibernate
+        Stream.of(Book.class, Member.class, BorrowRecord.class, Hold.class).forEach(type -> hints.reflection().registerType(type,
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.ACCESS_DECLARED_FIELDS));
+
+        // Instantiated by JPQL "SELECT new ..." or serialized outside a controller signature
+        Stream.of(BorrowHistoryEntry.class, BookSummary.class, MemberSummary.class, OpenLoan.class, QueuedHold.class, BatchItemResult.class,
+                CursorPage.class, SQLiteLocalDateTimeConverter.class)
+            .forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+
+        // JAXB looks its runtime up by name
+        hints.reflection().registerType(TypeReference.of("org.glassfish.jaxb.runtime.v2.JAXBContextFactory"),
+            MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("META-INF/services/jakarta.xml.bind.JAXBContextFactory");
+
+        // JDK proxies datasource-proxy puts around JDBC objects when the SQL trace is enabled
+        Stream.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class)
+            .forEach(type -> hints.proxies().registerJdkProxy(ProxyJdbcObject.class, type));
+
+        hints.resources().registerPattern("db/changelog/*.yaml");
+        hints.resources().registerPattern("liquibase.build.properties");
+        hints.resources().registerPattern("META-INF/services/liquibase.*");
+    }
+}
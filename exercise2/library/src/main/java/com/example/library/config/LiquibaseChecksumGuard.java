@@ -0,0 +1,98 @@
+package com.example.library.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * Skips the Liquibase update on startup when the changelogs have not changed since the last successful run.
+ * Checking the changelogs against {@code DATABASECHANGELOG} costs a parse of every file plus a lock round trip
+ * on each launch; instead a CRC32 of the changelog files is kept in SQLite's {@code PRAGMA user_version},
+ * which is read from the database header without touching any table. Any edit to a changelog, or a fresh
+ * database file, changes or resets the stamp and lets Liquibase run as usual.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.liquibase.skip-unchanged", havingValue = "true", matchIfMissing = true)
+public class LiquibaseChecksumGuard implements BeanPostProcessor {
+    private static final String CHANGELOG_PATTERN = "classpath*:db/changelog/**/*.yaml";
+
+    private int checksum;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof SpringLiquibase liquibase && liquibase.isShouldRun()) {
+            checksum = changelogChecksum();
+            if (readUserVersion(liquibase.getDataSource()) == checksum) {
+                log.info("Liquibase changelogs unchanged (checksum {}), skipping update", Integer.toHexString(checksum));
+                liquibase.setShouldRun(false);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Initialization only returns normally once the update has been applied
+        if (bean instanceof SpringLiquibase liquibase && liquibase.isShouldRun()) {
+            writeUserVersion(liquibase.getDataSource(), checksum);
+        }
+        return bean;
+    }
+
+    private static int changelogChecksum() {
+        try {
+            Resource[] changelogs = new PathMatchingResourcePatternResolver().getResources(CHANGELOG_PATTERN);
+            Arrays.sort(changelogs, Comparator.comparing(Resource::getFilename));
+            CRC32 crc = new CRC32();
+            for (Resource changelog : changelogs) {
+                crc.update(changelog.getFilename().getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = changelog.getInputStream()) {
+                    crc.update(in.readAllBytes());
+                }
+            }
+            // user_version is a signed 32-bit integer and 0 means "never stamped"
+            return (int) crc.getValue() | 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read Liquibase changelogs", e);
+        }
+    }
+
+    private static int readUserVersion(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            log.warn("Could not read the schema stamp, running Liquibase: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void writeUserVersion(DataSource dataSource, int version) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // PRAGMA arguments cannot be bound as parameters
+            statement.execute("PRAGMA user_version = " + version);
+        } catch (SQLException e) {
+            log.warn("Could not stamp the schema, Liquibase will run again on the next start: {}", e.getMessage());
+        }
+    }
+}
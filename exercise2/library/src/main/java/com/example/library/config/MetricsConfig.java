@@ -0,0 +1,37 @@
+package com.example.library.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Service timers, Hibernate statistics, connection pool and import metrics are scraped from the local
+ * {@code /actuator/prometheus} endpoint. Console sessions that run without the HTTP API can log them
+ * periodically instead by setting {@code library.metrics.log-interval}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    @ConditionalOnProperty("library.metrics.log-interval")
+    public LoggingMeterRegistry loggingMeterRegistry(@Value("${library.metrics.log-interval}") Duration interval) {
+        LoggingRegistryConfig config = new LoggingRegistryConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return interval;
+            }
+        };
+        return new LoggingMeterRegistry(config, Clock.SYSTEM);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Statement trace that replaces {@code spring.jpa.show-sql}. The JDBC thread only times the statement,
+ * decides whether to keep it and drops it into a bounded ring buffer; formatting and logging happen on a
+ * background thread. Statements slower than the threshold are always kept and logged at WARN, the rest
+ * are sampled and logged at INFO. When the buffer is full the oldest entry is dropped, so a slow log
+ * appender can never hold up a transaction.
+ */
+@Slf4j
+public class SqlTracer implements QueryExecutionListener, MeterBinder, AutoCloseable {
+    private static final String START_NANOS = SqlTracer.class.getName() + ".start";
+    private static final List<String> STATEMENT_TYPES = List.of("select", "insert", "update", "delete", "other");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final boolean captureParameters;
+    private final BlockingQueue<Entry> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    // One timer per statement type and outcome, registered once when bound: failed ones at even indexes
+    private volatile Timer[] timers;
+    private volatile boolean closed;
+
+    public SqlTracer(double sampleRate, Duration slowThreshold, boolean captureParameters, int bufferSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.captureParameters = captureParameters;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = Thread.ofPlatform().daemon().name("sql-trace").start(this::drain);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer[] bound = new Timer[STATEMENT_TYPES.size() * 2];
+        for (int i = 0; i < bound.length; i++) {
+            bound[i] = Timer.builder("library.sql")
+                .description("Latency of JDBC statements")
+                .tag("statement", STATEMENT_TYPES.get(i / 2))
+                .tag("success", String.valueOf(i % 2 == 1))
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        }
+        this.timers = bound;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = start != null ? System.nanoTime() - start : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.getFirst().getQuery();
+
+        Timer[] bound = timers;
+        if (bound != null) {
+            int timer = STATEMENT_TYPES.indexOf(statementType(sql)) * 2 + (execInfo.isSuccess() ? 1 : 0);
+            bound[timer].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        // Slow and failed statements are always kept, everything else is sampled
+        if (!slow && execInfo.isSuccess() && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        offer(new Entry(elapsedNanos, slow, execInfo.isSuccess(), execInfo.isBatch() ? execInfo.getBatchSize() : 0,
+            sql, captureParameters ? parameters(queryInfoList) : List.of(), Thread.currentThread().getName()));
+    }
+
+    public long droppedEntries() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void offer(Entry entry) {
+        while (!buffer.offer(entry)) {
+            if (buffer.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                // Closing: write out whatever is still buffered
+            }
+            buffer.drainTo(batch);
+            batch.forEach(SqlTracer::write);
+            batch.clear();
+        }
+        buffer.drainTo(batch);
+        batch.forEach(SqlTracer::write);
+    }
+
+    private static void write(Entry entry) {
+        String message = String.format(Locale.ROOT, "[%s] %.3f ms%s %s%s", entry.thread(),
+            entry.elapsedNanos() / 1_000_000.0,
+            entry.batchSize() > 0 ? " batch=" + entry.batchSize() : "",
+            entry.sql(),
+            entry.parameters().isEmpty() ? "" : " params=" + entry.parameters());
+        if (!entry.success()) {
+            log.warn("failed {}", message);
+        } else if (entry.slow()) {
+            log.warn("slow {}", message);
+        } else {
+            log.info(message);
+        }
+    }
+
+    private static List<String> parameters(List<QueryInfo> queryInfoList) {
+        List<String> parameters = new ArrayList<>();
+        for (QueryInfo query : queryInfoList) {
+            for (List<ParameterSetOperation> operations : query.getParametersList()) {
+                parameters.add(operations.stream()
+                    .map(operation -> String.valueOf(operation.getArgs()[1]))
+                    .collect(Collectors.joining(", ", "(", ")")));
+            }
+        }
+        return parameters;
+    }
+
+    static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return switch (trimmed.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT", "WITH" -> "select";
+            case "INSERT" -> "insert";
+            case "UPDATE" -> "update";
+            case "DELETE" -> "delete";
+            default -> "other";
+        };
+    }
+
+    private record Entry(long elapsedNanos, boolean slow, boolean success, int batchSize,
+                         String sql, List<String> parameters, String thread) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.library.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * Adds an ETag to catalog reads and answers a matching {@code If-None-Match} with 304,
+     * so polling clients skip the response body when the catalog has not changed.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> catalogEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+            new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/books", "/api/books/*");
+        return registration;
+    }
+}
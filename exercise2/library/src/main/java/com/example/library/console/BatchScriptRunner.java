@@ -0,0 +1,315 @@
+package com.example.library.console;
+
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a script of library operations without the interactive menus. A script holds one operation per
+ * line, either as a command or as an NDJSON object:
+ * <pre>
+ * # comments and blank lines are skipped
+ * register "Jane Doe" jane@example.com 555-0100
+ * add-book "Clean Code" "Robert C. Martin" 978-0132350884
+ * borrow 1 42
+ * return 1 42
+ * {"op": "borrow", "memberId": 1, "bookId": 42}
+ * {"op": "add-book", "title": "Clean Code", "author": "Robert C. Martin", "isbn": "978-0132350884"}
+ * </pre>
+ * Operations are committed in transactions of {@code batchSize}; if one of them fails, the rest of its
+ * transaction is rolled back and replayed one operation at a time, so only the failing operations are
+ * lost. With a parallelism above one, transactions run concurrently and operations in different
+ * transactions may run out of script order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchScriptRunner {
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private final BookService bookService;
+    private final MemberService memberService;
+    private final BorrowService borrowService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.batch.parallelism:1}")
+    private int defaultParallelism;
+
+    @Value("${library.batch.transaction-size:100}")
+    private int defaultBatchSize;
+
+    public BatchSummary run(Path script) {
+        return run(script, null, null);
+    }
+
+    /**
+     * @param parallelism how many transactions may run at once, or {@code null} for {@code library.batch.parallelism}
+     * @param batchSize   operations per transaction, or {@code null} for {@code library.batch.transaction-size}
+     */
+    public BatchSummary run(Path script, Integer parallelism, Integer batchSize) {
+        parallelism = parallelism != null ? parallelism : defaultParallelism;
+        batchSize = batchSize != null ? batchSize : defaultBatchSize;
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Parallelism and batch size must be positive");
+        }
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Semaphore inFlight = new Semaphore(parallelism);
+
+        try (BufferedReader reader = Files.newBufferedReader(script);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Operation> batch = new ArrayList<>(batchSize);
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String text = line.strip();
+                if (text.isEmpty() || text.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    batch.add(parse(lineNumber, text));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(lineNumber, text, e);
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    submit(executor, inFlight, List.copyOf(batch), progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, inFlight, List.copyOf(batch), progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read script " + script, e);
+        }
+
+        BatchSummary summary = new BatchSummary(progress.succeeded.sum(), progress.failed.sum(),
+            Duration.ofNanos(System.nanoTime() - start), List.copyOf(progress.failures));
+        log.info("Ran {} operations from {} in {} ms ({} ops/s), {} failed", summary.operations(), script,
+            summary.elapsed().toMillis(), Math.round(summary.operationsPerSecond()), summary.failed());
+        return summary;
+    }
+
+    private void submit(ExecutorService executor, Semaphore inFlight, List<Operation> batch, Progress progress) {
+        inFlight.acquireUninterruptibly();
+        executor.submit(() -> {
+            try {
+                runBatch(batch, progress);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void runBatch(List<Operation> batch, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+            progress.succeeded.add(batch.size());
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                progress.fail(batch.getFirst(), e);
+                return;
+            }
+        }
+        for (Operation operation : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(operation));
+                progress.succeeded.increment();
+            } catch (RuntimeException e) {
+                progress.fail(operation, e);
+            }
+        }
+    }
+
+    private void apply(Operation operation) {
+        List<String> args = operation.args();
+        switch (operation.command()) {
+            case BORROW -> borrowService.borrowBook(Long.parseLong(args.get(0)), Long.parseLong(args.get(1)));
+            case RETURN -> borrowService.returnBook(Long.parseLong(args.get(0)), Long.parseLong(args.get(1)));
+            case ADD_BOOK -> bookService.addBook(args.get(0), args.get(1), args.get(2));
+            case REGISTER -> memberService.registerMember(args.get(0), args.get(1), args.size() > 2 ? args.get(2) : null);
+        }
+    }
+
+    Operation parse(int line, String text) {
+        return text.startsWith("{") ? parseJson(line, text) : parseCommand(line, text);
+    }
+
+    private Operation parseCommand(int line, String text) {
+        List<String> tokens = tokenize(text);
+        Command command = Command.of(tokens.getFirst());
+        return command.operation(line, text, tokens.subList(1, tokens.size()));
+    }
+
+    private Operation parseJson(int line, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        Command command = Command.of(node.path("op").asText());
+        List<String> args = new ArrayList<>();
+        for (String field : command.fields) {
+            JsonNode value = node.get(field);
+            if (value != null && !value.isNull()) {
+                args.add(value.asText());
+            }
+        }
+        return command.operation(line, text, args);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean pending = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    token.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                pending = true;
+            } else if (Character.isWhitespace(c)) {
+                if (pending) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    pending = false;
+                }
+            } else {
+                token.append(c);
+                pending = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (pending) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    enum Command {
+        BORROW(2, "memberId", "bookId"),
+        RETURN(2, "memberId", "bookId"),
+        ADD_BOOK(3, "title", "author", "isbn"),
+        REGISTER(2, "name", "email", "phone");
+
+        private final int requiredArgs;
+        private final List<String> fields;
+
+        Command(int requiredArgs, String... fields) {
+            this.requiredArgs = requiredArgs;
+            this.fields = List.of(fields);
+        }
+
+        static Command of(String name) {
+            try {
+                return valueOf(name.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown operation: " + name);
+            }
+        }
+
+        private Operation operation(int line, String text, List<String> args) {
+            if (args.size() < requiredArgs || args.size() > fields.size()) {
+                throw new IllegalArgumentException(name().toLowerCase(Locale.ROOT).replace('_', '-')
+                    + " expects " + String.join(", ", fields));
+            }
+            if (this == BORROW || this == RETURN) {
+                args.forEach(arg -> {
+                    try {
+                        Long.parseLong(arg);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Not an id: " + arg);
+                    }
+                });
+            }
+            return new Operation(line, text, this, List.copyOf(args));
+        }
+    }
+
+    record Operation(int line, String text, Command command, List<String> args) {
+    }
+
+    public record Failure(int line, String text, String error) {
+    }
+
+    /**
+     * @param failures the first failures, in completion order; {@link #failed()} has the full count
+     */
+    public record BatchSummary(long succeeded, long failed, Duration elapsed, List<Failure> failures) {
+        public long operations() {
+            return succeeded + failed;
+        }
+
+        public double operationsPerSecond() {
+            long nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : operations() * 1_000_000_000.0 / nanos;
+        }
+
+        public void print(PrintStream out) {
+            failures.forEach(failure -> out.printf("Line %d failed: %s (%s)%n", failure.line(), failure.error(), failure.text()));
+            if (failed > failures.size()) {
+                out.printf("... and %d more failures%n", failed - failures.size());
+            }
+            out.printf("%d operations in %d ms (%.1f ops/s): %d succeeded, %d failed%n",
+                operations(), elapsed.toMillis(), operationsPerSecond(), succeeded, failed);
+        }
+    }
+
+    private static final class Progress {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+        private void fail(Operation operation, RuntimeException e) {
+            fail(operation.line(), operation.text(), e);
+        }
+
+        private void fail(int line, String text, RuntimeException e) {
+            failed.increment();
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new Failure(line, text, e.getMessage()));
+            }
+        }
+    }
+}
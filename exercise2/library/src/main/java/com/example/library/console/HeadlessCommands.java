@@ -0,0 +1,109 @@
+package com.example.library.console;
+
+import com.example.library.console.BatchScriptRunner.BatchSummary;
+import com.example.library.service.ExportService;
+import com.example.library.service.ExportService.Compression;
+import com.example.library.service.ExportService.ExportResult;
+import com.example.library.service.ExportService.Format;
+import com.example.library.service.ExportService.Table;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs a single command from the command line instead of the interactive console, e.g.
+ * {@code --export=books --format=ndjson --gzip --out=export/books.ndjson.gz [--after=1000]} or
+ * {@code --script=nightly-returns.txt [--parallelism=4] [--batch-size=100]}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HeadlessCommands {
+    private final ExportService exportService;
+    private final BatchScriptRunner batchScriptRunner;
+
+    public boolean handles(ApplicationArguments args) {
+        return args.containsOption("export") || args.containsOption("script");
+    }
+
+    /**
+     * Whether the raw command line is a single command, for deciding before the context starts whether
+     * it needs the HTTP API at all.
+     */
+    public static boolean isCommand(String... args) {
+        ApplicationArguments parsed = new DefaultApplicationArguments(args);
+        return parsed.containsOption("export") || parsed.containsOption("script");
+    }
+
+    /**
+     * @return the process exit code
+     */
+    public int run(ApplicationArguments args) {
+        try {
+            return args.containsOption("script") ? runScript(args) : export(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        } catch (RuntimeException e) {
+            log.error("Command failed", e);
+            return 1;
+        }
+    }
+
+    private int export(ApplicationArguments args) {
+        Table table = parse(Table.class, option(args, "export", null));
+        Format format = parse(Format.class, option(args, "format", "csv"));
+        Compression compression = args.containsOption("gzip") ? Compression.GZIP : Compression.NONE;
+        long afterId = Long.parseLong(option(args, "after", "0"));
+        Path out = Path.of(option(args, "out",
+            "export/" + table.tableName() + "." + format.extension() + compression.suffix()));
+
+        ExportResult result = exportService.export(table, format, compression, afterId, out);
+        System.out.printf("Exported %d %s rows to %s; resume with --after=%d%n",
+            result.rows(), table.tableName(), out, result.lastId());
+        return 0;
+    }
+
+    private int runScript(ApplicationArguments args) {
+        Path script = Path.of(option(args, "script", null));
+        BatchSummary summary = batchScriptRunner.run(script, intOption(args, "parallelism"), intOption(args, "batch-size"));
+        summary.print(System.out);
+        return summary.failed() == 0 ? 0 : 1;
+    }
+
+    private static String option(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty() || values.getFirst().isBlank()) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("--" + name + " needs a value");
+            }
+            return defaultValue;
+        }
+        return values.getFirst();
+    }
+
+    private static Integer intOption(ApplicationArguments args, String name) {
+        if (!args.containsOption(name)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(option(args, name, null));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number");
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + ": " + value);
+        }
+    }
+}
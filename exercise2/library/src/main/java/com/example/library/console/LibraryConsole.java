@@ -1,10 +1,28 @@
 package com.example.library.console;
 
+import com.example.library.config.CacheMetrics;
+import com.example.library.config.ConnectionPoolMetrics;
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.BatchMode;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.CursorPage;
+import com.example.library.service.ActiveLoanService;
 import com.example.library.service.BookService;
 import com.example.library.service.BorrowService;
+import com.example.library.service.CirculationLog;
+import com.example.library.service.ExportService;
+import com.example.library.service.HoldService;
+import com.example.library.service.ExportService.Compression;
+import com.example.library.service.ExportService.ExportResult;
+import com.example.library.service.ExportService.Format;
+import com.example.library.service.ExportService.Table;
 import com.example.library.service.MemberService;
+import com.example.library.service.OverdueService;
 import org.springframework.stereotype.Component;
 import lombok.RequiredArgsConstructor;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 @Component
@@ -13,6 +31,14 @@ public class LibraryConsole {
     private final BookService bookService;
     private final MemberService memberService;
     private final BorrowService borrowService;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+    private final CacheMetrics cacheMetrics;
+    private final ExportService exportService;
+    private final BatchScriptRunner batchScriptRunner;
+    private final OverdueService overdueService;
+    private final HoldService holdService;
+    private final CirculationLog circulationLog;
+    private final ActiveLoanService activeLoanService;
     private final Scanner scanner = new Scanner(System.in);
 
     public void start() {
@@ -25,6 +51,9 @@ public class LibraryConsole {
                 case 1 -> handleBookManagement();
                 case 2 -> handleMemberManagement();
                 case 3 -> handleBorrowingSystem();
+                case 4 -> viewSystemStatistics();
+                case 5 -> exportData();
+                case 6 -> runBatchScript();
                 case 0 -> running = false;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
@@ -37,6 +66,9 @@ public class LibraryConsole {
         System.out.println("1. Book Management");
         System.out.println("2. Member Management");
         System.out.println("3. Borrowing System");
+        System.out.println("4. System Statistics");
+        System.out.println("5. Export Data");
+        System.out.println("6. Run Batch Script");
         System.out.println("0. Exit");
     }
 
@@ -47,6 +79,7 @@ public class LibraryConsole {
             System.out.println("1. Add Book");
             System.out.println("2. View All Books");
             System.out.println("3. Search Books");
+            System.out.println("4. Withdraw or Restore Title");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -54,6 +87,7 @@ public class LibraryConsole {
                 case 1 -> addBook();
                 case 2 -> viewAllBooks();
                 case 3 -> searchBooks();
+                case 4 -> updateAvailability();
                 case 0 -> managing = false;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
@@ -66,12 +100,14 @@ public class LibraryConsole {
             System.out.println("\n=== Member Management ===");
             System.out.println("1. Register New Member");
             System.out.println("2. View All Members");
+            System.out.println("3. View Active Loans");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
             switch (choice) {
                 case 1 -> registerMember();
                 case 2 -> viewAllMembers();
+                case 3 -> viewActiveLoans();
                 case 0 -> managing = false;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
@@ -85,6 +121,12 @@ public class LibraryConsole {
             System.out.println("1. Borrow Book");
             System.out.println("2. Return Book");
             System.out.println("3. View Borrow History");
+            System.out.println("4. Borrow Several Books");
+            System.out.println("5. Return Several Books");
+            System.out.println("6. Overdue Loans");
+            System.out.println("7. Place Hold");
+            System.out.println("8. Cancel Hold");
+            System.out.println("9. Who Had A Book On A Date");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -92,6 +134,12 @@ public class LibraryConsole {
                 case 1 -> borrowBook();
                 case 2 -> returnBook();
                 case 3 -> viewBorrowHistory();
+                case 4 -> borrowBooks();
+                case 5 -> returnBooks();
+                case 6 -> viewOverdueLoans();
+                case 7 -> placeHold();
+                case 8 -> cancelHold();
+                case 9 -> viewBorrowersAt();
                 case 0 -> managing = false;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
@@ -114,17 +162,35 @@ public class LibraryConsole {
 
     private void viewAllBooks() {
         System.out.println("\n=== All Books ===");
-        bookService.getAllBooks().forEach(book ->
-                System.out.printf("ISBN: %s | Title: %s | Author: %s%n",
-                        book.getIsbn(), book.getTitle(), book.getAuthor()));
+        Long cursor = null;
+        do {
+            var page = bookService.getBookPage(cursor, BookService.DEFAULT_LIST_PAGE_SIZE);
+            page.items().forEach(book ->
+                    System.out.printf("ISBN: %s | Title: %s | Author: %s | Copies: %d/%d%n",
+                            book.isbn(), book.title(), book.author(),
+                            book.availableCopies(), book.totalCopies()));
+            cursor = nextCursorIfWanted(page);
+        } while (cursor != null);
     }
 
     private void searchBooks() {
         System.out.println("\n=== Search Books ===");
         String query = getStringInput("Enter search term (title/author/ISBN): ");
         bookService.searchBooks(query).forEach(book ->
-                System.out.printf("ISBN: %s | Title: %s | Author: %s%n",
-                        book.getIsbn(), book.getTitle(), book.getAuthor()));
+                System.out.printf("ISBN: %s | Title: %s | Author: %s | Copies: %d/%d%n",
+                        book.getIsbn(), book.getTitle(), book.getAuthor(),
+                        book.getAvailableCopies(), book.getTotalCopies()));
+    }
+
+    private void updateAvailability() {
+        System.out.println("\n=== Withdraw or Restore Title ===");
+        Long id = getLongInput("Enter book ID: ");
+        boolean available = getStringInput("Put the title back in circulation? (y/N): ").equalsIgnoreCase("y");
+        if (bookService.updateBookAvailability(id, available)) {
+            System.out.println(available ? "Copies not on loan are back on the shelf." : "Title withdrawn from the shelf.");
+        } else {
+            System.out.println("Book not found.");
+        }
     }
 
     // Member Management Methods
@@ -142,9 +208,27 @@ public class LibraryConsole {
     }
 
     private void viewAllMembers() {
-        System.out.println("\n=== All Members ===");        memberService.getAllMembers().forEach(member ->
-                System.out.printf("ID: %d | Name: %s | Email: %s | Phone: %s%n",
-                        member.getId(), member.getName(), member.getEmail(), member.getPhone()));
+        System.out.println("\n=== All Members ===");
+        Long cursor = null;
+        do {
+            var page = memberService.getMemberPage(cursor, MemberService.DEFAULT_LIST_PAGE_SIZE);
+            page.items().forEach(member ->
+                    System.out.printf("ID: %d | Name: %s | Email: %s | Phone: %s%n",
+                            member.id(), member.name(), member.email(), member.phone()));
+            cursor = nextCursorIfWanted(page);
+        } while (cursor != null);
+    }
+
+    private void viewActiveLoans() {
+        System.out.println("\n=== Active Loans ===");
+        Long memberId = getLongInput("Enter member ID: ");
+        List<Long> bookIds = activeLoanService.getActiveLoans(memberId);
+        var books = bookService.getBooksById(bookIds);
+        bookIds.forEach(id -> {
+            var book = books.get(id);
+            System.out.printf("Book ID: %d | %s%n", id, book != null ? book.getTitle() : "(deleted)");
+        });
+        System.out.printf("%d of %d loans in use.%n", bookIds.size(), activeLoanService.getMaxLoansPerMember());
     }
 
     private void borrowBook() {
@@ -154,6 +238,13 @@ public class LibraryConsole {
         try {
             borrowService.borrowBook(memberId, id);
             System.out.println("Book borrowed successfully!");
+        } catch (IllegalStateException e) {
+            System.out.println("Error borrowing book: " + e.getMessage());
+            // Only offer a hold when the book was out, not when the member is at the loan limit
+            if (activeLoanService.remainingLoans(memberId) > 0
+                    && getStringInput("Place a hold on this book? (y/n): ").equalsIgnoreCase("y")) {
+                placeHold(memberId, id);
+            }
         } catch (Exception e) {
             System.out.println("Error borrowing book: " + e.getMessage());
         }
@@ -171,15 +262,175 @@ public class LibraryConsole {
         }
     }   
     
+    private void borrowBooks() {
+        System.out.println("\n=== Borrow Several Books ===");
+        Long memberId = getLongInput("Enter member ID: ");
+        List<Long> ids = getLongListInput("Enter book IDs (comma-separated): ");
+        BatchMode mode = getBatchModeInput();
+        try {
+            printBatchResults(borrowService.borrowBooks(memberId, ids, mode));
+        } catch (Exception e) {
+            System.out.println("Error borrowing books: " + e.getMessage());
+        }
+    }
+
+    private void returnBooks() {
+        System.out.println("\n=== Return Several Books ===");
+        Long memberId = getLongInput("Enter member ID: ");
+        List<Long> ids = getLongListInput("Enter book IDs (comma-separated): ");
+        BatchMode mode = getBatchModeInput();
+        try {
+            printBatchResults(borrowService.returnBooks(memberId, ids, mode));
+        } catch (Exception e) {
+            System.out.println("Error returning books: " + e.getMessage());
+        }
+    }
+
+    private void printBatchResults(List<BatchItemResult> results) {
+        results.forEach(result -> System.out.printf("Book ID: %d | %s%n", result.bookId(), result.status()));
+        long succeeded = results.stream().filter(BatchItemResult::succeeded).count();
+        System.out.printf("%d of %d books processed.%n", succeeded, results.size());
+    }
+
     private void viewBorrowHistory() {
         System.out.println("\n=== Borrow History ===");
-        borrowService.getBorrowHistory().forEach(record -> {
-            String borrowDate = formatDate(record.getBorrowDate());
-            String returnDate = record.getReturnDate() != null ? formatDate(record.getReturnDate()) : "Not returned";
-            System.out.printf("Member ID: %s | Book ISBN: %s | Borrowed: %s | Returned: %s%n",
-                    record.getMember().getId(), record.getBook().getIsbn(),
-                    borrowDate, returnDate);
-        });
+        Long memberId = getOptionalLongInput("Filter by member ID (leave empty for all members): ");
+        var filter = memberId != null ? BorrowHistoryFilter.forMember(memberId) : BorrowHistoryFilter.all();
+        Long cursor = null;
+        do {
+            var page = borrowService.getBorrowHistory(filter, cursor, BorrowService.DEFAULT_HISTORY_PAGE_SIZE);
+            page.items().forEach(entry -> {
+                String borrowDate = formatDate(entry.borrowDate());
+                String returnDate = entry.returnDate() != null ? formatDate(entry.returnDate()) : "Not returned";
+                System.out.printf("Member ID: %s | Book ISBN: %s | Borrowed: %s | Returned: %s%n",
+                        entry.memberId(), entry.isbn(), borrowDate, returnDate);
+            });
+            cursor = nextCursorIfWanted(page);
+        } while (cursor != null);
+    }
+
+    private void placeHold() {
+        System.out.println("\n=== Place Hold ===");
+        Long memberId = getLongInput("Enter member ID: ");
+        Long id = getLongInput("Enter book ID: ");
+        placeHold(memberId, id);
+    }
+
+    private void placeHold(Long memberId, Long id) {
+        try {
+            holdService.placeHold(memberId, id);
+            System.out.printf("Hold placed. Position in queue: %d%n", holdService.getQueue(id).size());
+        } catch (Exception e) {
+            System.out.println("Error placing hold: " + e.getMessage());
+        }
+    }
+
+    private void cancelHold() {
+        System.out.println("\n=== Cancel Hold ===");
+        Long memberId = getLongInput("Enter member ID: ");
+        Long id = getLongInput("Enter book ID: ");
+        try {
+            holdService.cancelHold(memberId, id);
+            System.out.println("Hold cancelled.");
+        } catch (Exception e) {
+            System.out.println("Error cancelling hold: " + e.getMessage());
+        }
+    }
+
+    private void viewBorrowersAt() {
+        System.out.println("\n=== Who Had A Book On A Date ===");
+        Long id = getLongInput("Enter book ID: ");
+        String input = getStringInput("Date and time, yyyy-MM-ddTHH:mm (leave empty for now): ");
+        try {
+            var at = input.isEmpty() ? java.time.LocalDateTime.now() : java.time.LocalDateTime.parse(input);
+            List<Long> borrowers = circulationLog.borrowersAt(id, at);
+            if (borrowers.isEmpty()) {
+                System.out.println("No copy was on loan at " + formatDate(at) + ".");
+            }
+            borrowers.forEach(memberId -> System.out.printf("Member ID: %d%n", memberId));
+        } catch (java.time.format.DateTimeParseException e) {
+            System.out.println("Invalid date: " + input);
+        }
+    }
+
+    private void viewOverdueLoans() {
+        var now = java.time.LocalDateTime.now();
+        System.out.println("\n=== Overdue Loans ===");
+        var overdue = overdueService.findOverdue(now);
+        overdue.forEach(loan -> System.out.printf("Loan ID: %d | Member ID: %d | Book ID: %d | Due: %s%n",
+                loan.id(), loan.memberId(), loan.bookId(), formatDate(loan.dueDate())));
+        System.out.printf("%d overdue loans.%n", overdue.size());
+
+        System.out.println("\n=== Due In The Next 3 Days ===");
+        overdueService.findDueWithin(now, 3).forEach(loan ->
+                System.out.printf("Loan ID: %d | Member ID: %d | Book ID: %d | Due: %s%n",
+                        loan.id(), loan.memberId(), loan.bookId(), formatDate(loan.dueDate())));
+    }
+
+    private Long nextCursorIfWanted(CursorPage<?> page) {
+        if (!page.hasNext()) {
+            return null;
+        }
+        String answer = getStringInput("Press Enter for more, or 'q' to stop: ");
+        return answer.equalsIgnoreCase("q") ? null : page.nextCursor();
+    }
+
+    // System Statistics Methods
+    private void viewSystemStatistics() {
+        System.out.println("\n=== Connection Pools ===");
+        connectionPoolMetrics.snapshot().forEach(pool ->
+                System.out.printf("%s | Active: %d | Idle: %d | Total: %d | Waiting: %d | Acquired: %d | Timeouts: %d | Avg wait: %.3f ms | Max wait: %.3f ms%n",
+                        pool.poolName(), pool.active(), pool.idle(), pool.total(), pool.pendingThreads(),
+                        pool.acquisitions(), pool.timeouts(), pool.averageWaitMillis(), pool.maxWaitMillis()));
+
+        System.out.println("\n=== Caches ===");
+        cacheMetrics.snapshot().forEach(cache ->
+                System.out.printf("%s | Entries: %d | Hits: %d | Misses: %d | Evictions: %d | Hit rate: %.1f%%%n",
+                        cache.cacheName(), cache.size(), cache.hits(), cache.misses(), cache.evictions(),
+                        cache.hitRate() * 100));
+    }
+
+    private void exportData() {
+        System.out.println("\n=== Export Data ===");
+        System.out.println("1. Books");
+        System.out.println("2. Members");
+        System.out.println("3. Borrow Records");
+        System.out.println("4. Circulation Events");
+        Table table = switch (getIntInput("Choose what to export: ")) {
+            case 1 -> Table.BOOKS;
+            case 2 -> Table.MEMBERS;
+            case 3 -> Table.BORROW_RECORDS;
+            case 4 -> Table.CIRCULATION_EVENTS;
+            default -> null;
+        };
+        if (table == null) {
+            System.out.println("Invalid choice.");
+            return;
+        }
+        Format format = getStringInput("Format, csv or ndjson (default csv): ").equalsIgnoreCase("ndjson")
+                ? Format.NDJSON : Format.CSV;
+        Compression compression = getStringInput("Compress with gzip? (y/N): ").equalsIgnoreCase("y")
+                ? Compression.GZIP : Compression.NONE;
+        Long afterId = getOptionalLongInput("Resume after ID (leave empty to start from the beginning): ");
+        String defaultFile = "export/" + table.tableName() + "." + format.extension() + compression.suffix();
+        String file = getStringInput("Output file (default " + defaultFile + "): ");
+        try {
+            ExportResult result = exportService.export(table, format, compression, afterId != null ? afterId : 0,
+                    Path.of(file.isEmpty() ? defaultFile : file));
+            System.out.printf("Exported %d rows (last ID %d).%n", result.rows(), result.lastId());
+        } catch (Exception e) {
+            System.out.println("Error exporting data: " + e.getMessage());
+        }
+    }
+
+    private void runBatchScript() {
+        System.out.println("\n=== Run Batch Script ===");
+        String file = getStringInput("Script file: ");
+        try {
+            batchScriptRunner.run(Path.of(file)).print(System.out);
+        } catch (Exception e) {
+            System.out.println("Error running script: " + e.getMessage());
+        }
     }
 
     // Utility Methods
@@ -207,7 +458,42 @@ public class LibraryConsole {
             }
         }
     }
-      private String formatDate(java.time.LocalDateTime dateTime) {
+
+    private Long getOptionalLongInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                String input = scanner.nextLine().trim();
+                return input.isEmpty() ? null : Long.parseLong(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter a valid number.");
+            }
+        }
+    }
+
+    private List<Long> getLongListInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                List<Long> values = new ArrayList<>();
+                for (String part : scanner.nextLine().split(",")) {
+                    if (!part.isBlank()) {
+                        values.add(Long.parseLong(part.trim()));
+                    }
+                }
+                return values;
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter numbers separated by commas.");
+            }
+        }
+    }
+
+    private BatchMode getBatchModeInput() {
+        String answer = getStringInput("Cancel all if any book fails? (y/N): ");
+        return answer.equalsIgnoreCase("y") ? BatchMode.ALL_OR_NOTHING : BatchMode.PARTIAL;
+    }
+
+    private String formatDate(java.time.LocalDateTime dateTime) {
         if (dateTime == null) return null;
         return dateTime.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
@@ -0,0 +1,23 @@
+package com.example.library.model;
+
+/**
+ * Outcome of one book in a batch borrow or return.
+ */
+public record BatchItemResult(Long bookId, Status status) {
+
+    public enum Status {
+        BORROWED,
+        RETURNED,
+        NOT_FOUND,
+        NOT_AVAILABLE,
+        NOT_BORROWED,
+        /** The member would have gone over the per-member loan limit. */
+        LIMIT_REACHED,
+        /** The item could have been applied, but another item failed in {@link BatchMode#ALL_OR_NOTHING} mode. */
+        SKIPPED
+    }
+
+    public boolean succeeded() {
+        return status == Status.BORROWED || status == Status.RETURNED;
+    }
+}
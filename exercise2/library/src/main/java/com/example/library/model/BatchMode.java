@@ -0,0 +1,11 @@
+package com.example.library.model;
+
+/**
+ * How a batch borrow or return treats items that cannot be processed.
+ */
+public enum BatchMode {
+    /** Apply nothing if any item fails. */
+    ALL_OR_NOTHING,
+    /** Apply every item that can be applied and report the rest. */
+    PARTIAL
+}
@@ -29,4 +29,12 @@ public class Book {
     private String author;
     private String genre;
     private boolean available;
+
+    @Builder.Default
+    @Column(name = "total_copies", nullable = false)
+    private int totalCopies = 1;
+
+    @Builder.Default
+    @Column(name = "available_copies", nullable = false)
+    private int availableCopies = 1;
 }
@@ -0,0 +1,14 @@
+package com.example.library.model;
+
+/**
+ * Read-only row of the catalog listing, projected straight from the query instead of hydrating
+ * managed {@link Book} entities.
+ */
+public record BookSummary(
+    Long id,
+    String isbn,
+    String title,
+    String author,
+    int availableCopies,
+    int totalCopies) {
+}
@@ -0,0 +1,18 @@
+package com.example.library.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of the borrow history, projected straight from the query instead of hydrating
+ * {@link BorrowRecord} together with its member and book.
+ */
+public record BorrowHistoryEntry(
+    Long id,
+    Long memberId,
+    String memberName,
+    Long bookId,
+    String isbn,
+    String title,
+    LocalDateTime borrowDate,
+    LocalDateTime returnDate) {
+}
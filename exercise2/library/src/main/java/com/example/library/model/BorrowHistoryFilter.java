@@ -0,0 +1,22 @@
+package com.example.library.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for the borrow history; {@code null} components are not applied.
+ * The date range is half-open: {@code from} is inclusive, {@code to} is exclusive.
+ */
+public record BorrowHistoryFilter(Long memberId, Long bookId, LocalDateTime from, LocalDateTime to) {
+
+    public static BorrowHistoryFilter all() {
+        return new BorrowHistoryFilter(null, null, null, null);
+    }
+
+    public static BorrowHistoryFilter forMember(Long memberId) {
+        return new BorrowHistoryFilter(memberId, null, null, null);
+    }
+
+    public static BorrowHistoryFilter forBook(Long bookId) {
+        return new BorrowHistoryFilter(null, bookId, null, null);
+    }
+}
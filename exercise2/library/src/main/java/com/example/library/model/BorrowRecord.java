@@ -42,4 +42,8 @@ public class BorrowRecord {
     @Column(name = "return_date")
     @Convert(converter = SQLiteLocalDateTimeConverter.class)
     private LocalDateTime returnDate;
+
+    @Column(name = "due_date")
+    @Convert(converter = SQLiteLocalDateTimeConverter.class)
+    private LocalDateTime dueDate;
 }
@@ -0,0 +1,11 @@
+package com.example.library.model;
+
+/**
+ * Kind of an entry in the append-only circulation log, stored by name in {@code circulation_events.event_type}.
+ */
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED,
+    HELD,
+    HOLD_CANCELLED
+}
@@ -0,0 +1,27 @@
+package com.example.library.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@link #nextCursor()} back to fetch the following page;
+ * it is {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Builds a page from a query that fetched one row more than {@code size}; the extra row only
+     * signals that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(List.copyOf(rows), null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(items, cursorOf.apply(items.getLast()));
+    }
+}
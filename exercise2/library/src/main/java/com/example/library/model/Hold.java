@@ -0,0 +1,47 @@
+package com.example.library.model;
+
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A member waiting for a copy of a book; holds on the same book are served in id order.
+ */
+@Entity
+@Table(name = "holds",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "member_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @ManyToOne
+    @JoinColumn(name = "member_id", nullable = false)
+    private Member member;
+
+    @Column(name = "placed_at", nullable = false)
+    @Convert(converter = SQLiteLocalDateTimeConverter.class)
+    private LocalDateTime placedAt;
+}
@@ -0,0 +1,8 @@
+package com.example.library.model;
+
+/**
+ * Read-only row of the member listing, projected straight from the query instead of hydrating
+ * managed {@link Member} entities.
+ */
+public record MemberSummary(Long id, String name, String email, String phone) {
+}
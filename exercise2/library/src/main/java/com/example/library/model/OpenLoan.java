@@ -0,0 +1,13 @@
+package com.example.library.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A loan that has not been returned yet, as kept in the due-date index of the overdue scanner.
+ */
+public record OpenLoan(Long id, Long memberId, Long bookId, LocalDateTime dueDate) {
+
+    public boolean isOverdue(LocalDateTime now) {
+        return dueDate.isBefore(now);
+    }
+}
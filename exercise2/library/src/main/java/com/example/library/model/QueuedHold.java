@@ -0,0 +1,9 @@
+package com.example.library.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A hold as kept in the in-memory queue of its book.
+ */
+public record QueuedHold(Long id, Long bookId, Long memberId, LocalDateTime placedAt) {
+}
@@ -0,0 +1,140 @@
+package com.example.library.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.library.service.TransactionHooks.afterCommit;
+import static com.example.library.service.TransactionHooks.afterRollback;
+
+/**
+ * In-memory index of the books each member has on loan, kept as a primitive {@code long[]} per member.
+ * It answers "what does this member have" and enforces the per-member loan limit without touching
+ * {@code borrow_records}. A borrow takes its slot before the copy is claimed and gives it back if the
+ * transaction rolls back; a return frees its slot only once it has committed, so the index never shows
+ * fewer loans than the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActiveLoanService {
+    private static final long[] NONE = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, long[]> loansByMember = new ConcurrentHashMap<>();
+
+    @Value("${library.loans.max-per-member:10}")
+    private int maxLoansPerMember;
+
+    /**
+     * Takes a loan slot for the book, handed back if the surrounding transaction rolls back.
+     *
+     * @throws ConflictException if the member already has the maximum number of books on loan
+     */
+    public void reserve(Long memberId, Long bookId) {
+        reserve(memberId, List.of(bookId));
+    }
+
+    /**
+     * Takes one loan slot per book, all or none.
+     *
+     * @throws ConflictException if the books do not all fit under the member's loan limit
+     */
+    public void reserve(Long memberId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        loansByMember.compute(memberId, (id, loans) -> {
+            long[] current = loans != null ? loans : NONE;
+            if (current.length + bookIds.size() > maxLoansPerMember) {
+                throw new ConflictException("Member has reached the limit of " + maxLoansPerMember + " loans");
+            }
+            return append(current, bookIds);
+        });
+        afterRollback(() -> remove(memberId, bookIds));
+    }
+
+    /**
+     * Records a loan regardless of the limit, for a copy lent to a member whose hold came up.
+     */
+    public void add(Long memberId, Long bookId) {
+        loansByMember.compute(memberId, (id, loans) -> append(loans != null ? loans : NONE, List.of(bookId)));
+        afterRollback(() -> remove(memberId, List.of(bookId)));
+    }
+
+    /**
+     * Frees the slots of returned books once the return has committed.
+     */
+    public void releaseAfterCommit(Long memberId, Collection<Long> bookIds) {
+        afterCommit(() -> remove(memberId, bookIds));
+    }
+
+    /**
+     * @return the ids of the books the member has on loan, one entry per copy
+     */
+    public List<Long> getActiveLoans(Long memberId) {
+        return Arrays.stream(loansByMember.getOrDefault(memberId, NONE)).boxed().toList();
+    }
+
+    /**
+     * @return how many more books the member may borrow right now
+     */
+    public int remainingLoans(Long memberId) {
+        return Math.max(0, maxLoansPerMember - loansByMember.getOrDefault(memberId, NONE).length);
+    }
+
+    public int getMaxLoansPerMember() {
+        return maxLoansPerMember;
+    }
+
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        loansByMember.clear();
+        jdbcTemplate.query("SELECT member_id, book_id FROM borrow_records WHERE return_date IS NULL",
+            rs -> {
+                long bookId = rs.getLong(2);
+                loansByMember.compute(rs.getLong(1), (id, loans) -> append(loans != null ? loans : NONE, List.of(bookId)));
+            });
+        log.info("Indexed active loans of {} members", loansByMember.size());
+    }
+
+    private void remove(Long memberId, Collection<Long> bookIds) {
+        loansByMember.computeIfPresent(memberId, (id, loans) -> {
+            long[] remaining = loans;
+            for (Long bookId : bookIds) {
+                remaining = removeOne(remaining, bookId);
+            }
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    private static long[] append(long[] loans, Collection<Long> bookIds) {
+        long[] grown = Arrays.copyOf(loans, loans.length + bookIds.size());
+        int i = loans.length;
+        for (Long bookId : bookIds) {
+            grown[i++] = bookId;
+        }
+        return grown;
+    }
+
+    private static long[] removeOne(long[] loans, long bookId) {
+        for (int i = 0; i < loans.length; i++) {
+            if (loans[i] == bookId) {
+                long[] shrunk = new long[loans.length - 1];
+                System.arraycopy(loans, 0, shrunk, 0, i);
+                System.arraycopy(loans, i + 1, shrunk, i, loans.length - i - 1);
+                return shrunk;
+            }
+        }
+        return loans;
+    }
+}
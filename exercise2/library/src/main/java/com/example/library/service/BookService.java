@@ -1,19 +1,50 @@
 package com.example.library.service;
 
+import com.example.library.config.CacheConfig;
 import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.model.CursorPage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "library.service", histogram = true, percentiles = {0.5, 0.99})
 public class BookService {
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+    public static final int DEFAULT_LIST_PAGE_SIZE = 50;
+
+    // The trigram tokenizer cannot match terms shorter than three characters
+    private static final int MIN_FULL_TEXT_QUERY_LENGTH = 3;
+
     private final BookRepository bookRepository;
+    private final InventoryService inventoryService;
+    private final CatalogService catalogService;
+    private final CacheManager cacheManager;
 
+    @CachePut(cacheNames = CacheConfig.BOOKS, key = "#result.id")
     public Book addBook(String title, String author, String isbn) {
         Book book = Book.builder()
             .isbn(isbn)
@@ -22,47 +53,299 @@ public class BookService {
             .genre(null)
             .available(true)
             .build();
-        return bookRepository.save(book);
+        return track(bookRepository.save(book));
     }
 
+    @CachePut(cacheNames = CacheConfig.BOOKS, key = "#result.id")
     public Book addBook(Book book) {
-        return bookRepository.save(book);
+        return track(bookRepository.save(book));
+    }
+
+    /**
+     * Adds newly acquired copies of a title to its stock, all of them on the shelf.
+     *
+     * @return {@code false} if the book does not exist
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public boolean addCopies(Long id, int copies) {
+        if (copies <= 0) {
+            throw new IllegalArgumentException("Number of copies must be positive");
+        }
+        if (bookRepository.addCopies(id, copies) == 0) {
+            return false;
+        }
+        inventoryService.forget(id);
+        catalogService.onCopiesAdded(id, copies);
+        return true;
+    }
+
+    /**
+     * Takes a title out of circulation or puts it back with a single UPDATE, without loading the book.
+     * Withdrawing takes the copies on the shelf off it; restoring puts back every copy that is not on loan,
+     * counted from the open borrow records in the same statement.
+     *
+     * @return {@code false} if the book does not exist
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public boolean updateBookAvailability(Long id, boolean available) {
+        if (bookRepository.updateAvailability(id, available) == 0) {
+            return false;
+        }
+        inventoryService.forget(id);
+        return true;
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
-    }    
+    }
+
+    /**
+     * Returns one page of the catalog in id order, as projections rather than managed entities.
+     *
+     * @param afterId the {@link CursorPage#nextCursor()} of the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummary> getBookPage(Long afterId, int size) {
+        List<BookSummary> rows = bookRepository.findSummaryPage(afterId, Limit.of(size + 1));
+        return CursorPage.of(rows, size, BookSummary::id);
+    }
+
+    /**
+     * Emptiness probe that reads at most one row instead of loading the catalog.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasBooks() {
+        return bookRepository.existsByIdNotNull();
+    }
     
-    public Optional<Book> getBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+    /**
+     * Reloads the availability counters and the catalog snapshot after books were written around this
+     * service, as the initial bulk import does.
+     */
+    public void reloadIndexes() {
+        inventoryService.reconcile();
+        catalogService.loadCatalog();
+    }
+
+    /**
+     * Served from the catalog snapshot; only a title the snapshot has not seen goes to the database.
+     */
+    public Optional<BookSummary> getBookByIsbn(String isbn) {
+        return catalogService.findByIsbn(isbn);
+    }
+
+    /**
+     * Served from the catalog snapshot, for callers that only need the title and its shelf count.
+     */
+    public Optional<BookSummary> getBookSummary(Long id) {
+        return catalogService.findById(id);
     }
     
+    /**
+     * Cached by id; the returned instance is shared between callers and must not be modified.
+     * Callers that only read the title or its availability use {@link #getBookSummary(Long)} instead.
+     */
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id", unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
 
+    public Book getBookReference(Long id) {
+        return bookRepository.getReferenceById(id);
+    }
+
+    /**
+     * Loads the given books with one {@code IN} query; ids that do not exist are absent from the result.
+     */
+    public Map<Long, Book> getBooksById(Collection<Long> ids) {
+        return bookRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    public boolean isAnyCopyAvailable(Long id) {
+        return inventoryService.isAnyCopyAvailable(id);
+    }
+
+    /**
+     * Atomically takes one copy of the book off the shelf if any is left.
+     * Sold-out titles are turned away by the in-memory inventory without a database round trip.
+     *
+     * @return {@code false} if the book does not exist or all of its copies are borrowed
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public boolean markBorrowed(Long id) {
+        if (!inventoryService.tryReserve(id)) {
+            return false;
+        }
+        if (bookRepository.claimCopy(id) == 1) {
+            return true;
+        }
+        // The counter said a copy was left but the table disagrees; a return committed after this
+        // transaction would be lost by overwriting the counter, so drop it and go to the table instead
+        inventoryService.forget(id);
+        return false;
+    }
+
+    /**
+     * Takes one copy of each book off the shelf with a single UPDATE. Titles the in-memory inventory
+     * reports as sold out are left out; the caller must already have seen a copy of every other title
+     * on the shelf within the current transaction.
+     *
+     * @return the ids of the books that were claimed
+     */
+    @Transactional
+    public Set<Long> markBorrowed(Collection<Long> ids) {
+        Set<Long> reserved = ids.stream()
+            .filter(inventoryService::tryReserve)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (reserved.isEmpty()) {
+            return reserved;
+        }
+        if (bookRepository.claimCopies(reserved) != reserved.size()) {
+            throw new ConflictException("Availability changed during batch borrow");
+        }
+        evictBooks(reserved);
+        return reserved;
+    }
+
+    @Transactional
+    public int markReturned(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int returned = bookRepository.releaseCopies(ids);
+        ids.forEach(inventoryService::releaseAfterCommit);
+        evictBooks(ids);
+        return returned;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public boolean markReturned(Long id) {
+        if (bookRepository.releaseCopy(id) == 1) {
+            inventoryService.releaseAfterCommit(id);
+            return true;
+        }
+        return false;
+    }
+
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String query) {
-        return bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(query, query);
-    }
-
-    public void updateBookAvailability(Long id, boolean available) {
-        bookRepository.findById(id).ifPresent(book -> {
-            Book updatedBook = Book.builder()
-                .id(book.getId())
-                .isbn(book.getIsbn())
-                .title(book.getTitle())
-                .author(book.getAuthor())
-                .genre(book.getGenre())
-                .available(available)
-                .build();
-            bookRepository.save(updatedBook);
-        });
+        return searchBooks(query, 0, DEFAULT_SEARCH_PAGE_SIZE);
+    }
+
+    /**
+     * Finds books whose title or author contains the query, best matches first.
+     * Terms of three or more characters are answered from the {@code books_fts} trigram index;
+     * shorter terms fall back to a paged substring scan. Runs read-only, so the loaded books are not
+     * snapshotted for dirty checking.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> searchBooks(String query, int page, int size) {
+        String term = query == null ? "" : query.strip();
+        if (term.length() < MIN_FULL_TEXT_QUERY_LENGTH) {
+            return bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(
+                term, term, PageRequest.of(page, size));
+        }
+        return bookRepository.searchFullText(toPhraseQuery(term), size, page * size);
+    }
+
+    private void evictBooks(Collection<Long> ids) {
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        if (books != null) {
+            ids.forEach(books::evict);
+        }
+    }
+
+    private Book track(Book book) {
+        inventoryService.track(book.getId(), book.getAvailableCopies());
+        catalogService.onBookAdded(book);
+        return book;
+    }
+
+    private static String toPhraseQuery(String term) {
+        // Quote the whole term as one FTS5 phrase so operators and punctuation are matched literally
+        return "\"" + term.replace("\"", "\"\"") + "\"";
     }
 }
 
 interface BookRepository extends JpaRepository<Book, Long> {
-    Optional<Book> findByIsbn(String isbn);
+
+    boolean existsByIdNotNull();
+
+    @Query("""
+        SELECT new com.example.library.model.BookSummary(b.id, b.isbn, b.title, b.author, b.availableCopies, b.totalCopies)
+        FROM Book b
+        WHERE :afterId IS NULL OR b.id > :afterId
+        ORDER BY b.id""")
+    List<BookSummary> findSummaryPage(@Param("afterId") Long afterId, Limit limit);
     
-    @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(@Param("query") String query, @Param("query") String authorQuery);
+    @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY b.title, b.id")
+    List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(@Param("query") String query, @Param("query") String authorQuery, Pageable pageable);
+
+    @Query(value = """
+        SELECT b.* FROM books b
+        JOIN (SELECT rowid, rank FROM books_fts WHERE books_fts MATCH :match ORDER BY rank LIMIT :limit OFFSET :offset) f
+          ON f.rowid = b.id
+        ORDER BY f.rank""", nativeQuery = true)
+    List<Book> searchFullText(@Param("match") String match, @Param("limit") int limit, @Param("offset") int offset);
+
+    // The SET expressions see the row as it was before the update, so "available" reflects the new count
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Book b
+        SET b.availableCopies = b.availableCopies - 1,
+            b.available = CASE WHEN b.availableCopies > 1 THEN true ELSE false END
+        WHERE b.id = :id AND b.availableCopies > 0""")
+    int claimCopy(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Book b
+        SET b.availableCopies = b.availableCopies - 1,
+            b.available = CASE WHEN b.availableCopies > 1 THEN true ELSE false END
+        WHERE b.id IN :ids AND b.availableCopies > 0""")
+    int claimCopies(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Book b
+        SET b.availableCopies = b.availableCopies + 1, b.available = true
+        WHERE b.id = :id AND b.availableCopies < b.totalCopies""")
+    int releaseCopy(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Book b
+        SET b.availableCopies = b.availableCopies + 1, b.available = true
+        WHERE b.id IN :ids AND b.availableCopies < b.totalCopies""")
+    int releaseCopies(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Book b
+        SET b.totalCopies = b.totalCopies + :copies, b.availableCopies = b.availableCopies + :copies, b.available = true
+        WHERE b.id = :id""")
+    int addCopies(@Param("id") Long id, @Param("copies") int copies);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE books
+        SET available_copies = CASE WHEN :available THEN total_copies - (
+                SELECT COUNT(*) FROM borrow_records WHERE book_id = :id AND return_date IS NULL) ELSE 0 END,
+            available = CASE WHEN :available THEN total_copies > (
+                SELECT COUNT(*) FROM borrow_records WHERE book_id = :id AND return_date IS NULL) ELSE 0 END
+        WHERE id = :id""", nativeQuery = true)
+    int updateAvailability(@Param("id") Long id, @Param("available") boolean available);
 }
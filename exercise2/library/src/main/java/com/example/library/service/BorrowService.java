@@ -1,77 +1,322 @@
 package com.example.library.service;
 
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.BatchItemResult.Status;
+import com.example.library.model.BatchMode;
 import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
 import com.example.library.model.BorrowRecord;
-import com.example.library.model.Member;
+import com.example.library.model.CirculationEventType;
+import com.example.library.model.CursorPage;
+import com.example.library.model.OpenLoan;
+import com.example.library.model.QueuedHold;
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import jakarta.persistence.QueryHint;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "library.service", histogram = true, percentiles = {0.5, 0.99})
 public class BorrowService {
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+
+    private static final String INSERT_BORROW_RECORD_SQL =
+        "INSERT INTO borrow_records (member_id, book_id, borrow_date, due_date) VALUES (?, ?, ?, ?)";
+    private static final SQLiteLocalDateTimeConverter DATE_CONVERTER = new SQLiteLocalDateTimeConverter();
+
     private final BorrowRecordRepository borrowRecordRepository;
     private final BookService bookService;
     private final MemberService memberService;
-    
+    private final JdbcTemplate jdbcTemplate;
+    private final OverdueService overdueService;
+    private final HoldService holdService;
+    private final CirculationLog circulationLog;
+    private final ActiveLoanService activeLoanService;
+
+    @Value("${library.loans.period-days:14}")
+    private int loanPeriodDays;
+
+    @Transactional
     public BorrowRecord borrowBook(Long memberId, Long id) {
-        var memberOpt = memberService.getMemberById(memberId);
-        var bookOpt = bookService.getBookById(id);
+        var member = memberService.getMemberById(memberId)
+            .orElseThrow(() -> new NotFoundException("Member not found"));
+        // Checked against the in-memory loan index; the slot is handed back if the borrow fails
+        activeLoanService.reserve(memberId, id);
+
+        // Claim the copy with one conditional UPDATE; a borrower that loses the race fails instead of retrying
+        if (!bookService.markBorrowed(id)) {
+            if (bookService.getBookSummary(id).isEmpty()) {
+                throw new NotFoundException("Book not found");
+            }
+            throw new ConflictException("Book is not available");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        var record = BorrowRecord.builder()
+            .member(member)
+            .book(bookService.getBookReference(id))
+            .borrowDate(now)
+            .dueDate(now.plusDays(loanPeriodDays))
+            .build();
+
+        BorrowRecord saved = borrowRecordRepository.save(record);
+        circulationLog.append(CirculationEventType.BORROWED, memberId, id, now);
+        overdueService.track(new OpenLoan(saved.getId(), memberId, id, saved.getDueDate()));
+        return saved;
+    }
+
+    /**
+     * Closes the member's loan of the book, the earliest one if they have several copies out. If anyone
+     * holds the book, the copy is lent to the first holder in the same transaction instead of going back
+     * on the shelf.
+     */
+    @Transactional
+    public void returnBook(Long memberId, Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        OpenLoan loan = earliestOpenLoans(memberId, List.of(id)).get(id);
+        if (loan == null || borrowRecordRepository.markReturned(List.of(loan.id()), now) == 0) {
+            throw new NotFoundException("No active borrow record found");
+        }
+        circulationLog.append(CirculationEventType.RETURNED, memberId, id, now);
+        overdueService.untrack(List.of(loan.id()));
+        activeLoanService.releaseAfterCommit(memberId, List.of(id));
+        holdService.claimNext(id).ifPresentOrElse(hold -> lendToHolder(hold, now), () -> bookService.markReturned(id));
+    }
+
+    /**
+     * Borrows a stack of books for one member: the member is resolved once, the books are loaded with one
+     * {@code IN} query, their copies are claimed with one UPDATE and the borrow records are written as one
+     * JDBC batch.
+     *
+     * @return one result per distinct book id, in the order given
+     */
+    @Transactional
+    public List<BatchItemResult> borrowBooks(Long memberId, List<Long> bookIds, BatchMode mode) {
+        memberService.getMemberById(memberId)
+            .orElseThrow(() -> new NotFoundException("Member not found"));
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        Map<Long, Book> books = bookService.getBooksById(ids);
+
+        Map<Long, Status> statuses = new LinkedHashMap<>();
+        List<Long> onShelf = new ArrayList<>();
+        int room = activeLoanService.remainingLoans(memberId);
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book == null) {
+                statuses.put(id, Status.NOT_FOUND);
+            } else if (book.getAvailableCopies() <= 0) {
+                statuses.put(id, Status.NOT_AVAILABLE);
+            } else if (onShelf.size() >= room) {
+                statuses.put(id, Status.LIMIT_REACHED);
+            } else {
+                statuses.put(id, Status.BORROWED);
+                onShelf.add(id);
+            }
+        }
+        if (mode == BatchMode.ALL_OR_NOTHING && onShelf.size() < ids.size()) {
+            return skipSucceeded(statuses, Status.BORROWED);
+        }
 
-        if (!memberOpt.isPresent()) {
-            throw new IllegalArgumentException("Member not found");
+        Set<Long> claimed = bookService.markBorrowed(onShelf);
+        onShelf.stream()
+            .filter(id -> !claimed.contains(id))
+            .forEach(id -> statuses.put(id, Status.NOT_AVAILABLE));
+        if (mode == BatchMode.ALL_OR_NOTHING && claimed.size() < onShelf.size()) {
+            // Put back the copies claimed so far
+            bookService.markReturned(claimed);
+            return skipSucceeded(statuses, Status.BORROWED);
         }
-        if (!bookOpt.isPresent()) {
-            throw new IllegalArgumentException("Book not found");
+
+        if (claimed.isEmpty()) {
+            return toResults(statuses);
         }
+        // Fails the whole batch only if the member borrowed elsewhere since the room was read
+        activeLoanService.reserve(memberId, claimed);
+        LocalDateTime now = LocalDateTime.now();
+        Long borrowDate = DATE_CONVERTER.convertToDatabaseColumn(now);
+        Long dueDate = DATE_CONVERTER.convertToDatabaseColumn(now.plusDays(loanPeriodDays));
+        jdbcTemplate.batchUpdate(INSERT_BORROW_RECORD_SQL, claimed, claimed.size(), (ps, bookId) -> {
+            ps.setLong(1, memberId);
+            ps.setLong(2, bookId);
+            ps.setLong(3, borrowDate);
+            ps.setLong(4, dueDate);
+        });
+        circulationLog.append(CirculationEventType.BORROWED, memberId, claimed, now);
+        // The batch insert does not hand back generated keys, so read the new loans back for the due-date index
+        borrowRecordRepository.findOpenLoans(memberId, claimed).forEach(overdueService::track);
+        return toResults(statuses);
+    }
+
+    /**
+     * Returns a stack of books for one member, one copy per distinct book: the active loans are looked up
+     * with one {@code IN} query and closed with one UPDATE. Copies of held books are lent to their first
+     * holder, the rest go back on the shelf with another UPDATE.
+     *
+     * @return one result per distinct book id, in the order given
+     */
+    @Transactional
+    public List<BatchItemResult> returnBooks(Long memberId, List<Long> bookIds, BatchMode mode) {
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        Map<Long, OpenLoan> loans = earliestOpenLoans(memberId, ids);
+        Set<Long> onLoan = new LinkedHashSet<>(ids);
+        onLoan.retainAll(loans.keySet());
 
-        var book = bookOpt.get();
-        if (!book.isAvailable()) {
-            throw new IllegalStateException("Book is not available");
+        Map<Long, Status> statuses = new LinkedHashMap<>();
+        ids.forEach(id -> statuses.put(id, onLoan.contains(id) ? Status.RETURNED : Status.NOT_BORROWED));
+        if (onLoan.isEmpty() || (mode == BatchMode.ALL_OR_NOTHING && onLoan.size() < ids.size())) {
+            return skipSucceeded(statuses, Status.RETURNED);
         }
 
-        bookService.updateBookAvailability(id, false);
-        
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> loanIds = loans.values().stream().map(OpenLoan::id).toList();
+        if (borrowRecordRepository.markReturned(loanIds, now) < loanIds.size()) {
+            throw new ConflictException("Loans were returned concurrently");
+        }
+        circulationLog.append(CirculationEventType.RETURNED, memberId, onLoan, now);
+        overdueService.untrack(loanIds);
+        activeLoanService.releaseAfterCommit(memberId, onLoan);
+        List<Long> toShelf = new ArrayList<>();
+        for (Long id : onLoan) {
+            holdService.claimNext(id).ifPresentOrElse(hold -> lendToHolder(hold, now), () -> toShelf.add(id));
+        }
+        bookService.markReturned(toShelf);
+        return toResults(statuses);
+    }
+
+    private void lendToHolder(QueuedHold hold, LocalDateTime now) {
         var record = BorrowRecord.builder()
-            .member(memberOpt.get())
-            .book(book)
-            .borrowDate(LocalDateTime.now())
+            .member(memberService.getMemberReference(hold.memberId()))
+            .book(bookService.getBookReference(hold.bookId()))
+            .borrowDate(now)
+            .dueDate(now.plusDays(loanPeriodDays))
             .build();
+        BorrowRecord saved = borrowRecordRepository.save(record);
+        circulationLog.append(CirculationEventType.BORROWED, hold.memberId(), hold.bookId(), now);
+        // The holder queued before the copy came back, so the loan limit is not applied here
+        activeLoanService.add(hold.memberId(), hold.bookId());
+        overdueService.track(new OpenLoan(saved.getId(), hold.memberId(), hold.bookId(), saved.getDueDate()));
+    }
 
-        return borrowRecordRepository.save(record);
+    /**
+     * Picks the loan a return closes for each book. A member can have several copies of a title out, and
+     * each return hands back one of them, the one borrowed first.
+     *
+     * @return the member's earliest open loan per book; books the member has not borrowed are absent
+     */
+    private Map<Long, OpenLoan> earliestOpenLoans(Long memberId, Collection<Long> bookIds) {
+        Map<Long, OpenLoan> loans = new HashMap<>();
+        borrowRecordRepository.findOpenLoans(memberId, bookIds).forEach(loan ->
+            loans.merge(loan.bookId(), loan, (first, second) -> first.id() < second.id() ? first : second));
+        return loans;
     }
 
-    public void returnBook(Long memberId, Long id) {
-        var record = borrowRecordRepository
-            .findByMember_IdAndBook_IdAndReturnDateIsNull(memberId, id)
-            .orElseThrow(() -> new IllegalArgumentException("No active borrow record found"));
-
-        var returnedRecord = BorrowRecord.builder()
-            .id(record.getId())
-            .member(record.getMember())
-            .book(record.getBook())
-            .borrowDate(record.getBorrowDate())
-            .returnDate(LocalDateTime.now())
-            .build();
+    private static List<BatchItemResult> skipSucceeded(Map<Long, Status> statuses, Status success) {
+        statuses.replaceAll((id, status) -> status == success ? Status.SKIPPED : status);
+        return toResults(statuses);
+    }
 
-        borrowRecordRepository.save(returnedRecord);
-        bookService.updateBookAvailability(id, true);
+    private static List<BatchItemResult> toResults(Map<Long, Status> statuses) {
+        return statuses.entrySet().stream()
+            .map(entry -> new BatchItemResult(entry.getKey(), entry.getValue()))
+            .toList();
     }
 
-    public List<BorrowRecord> getBorrowHistory() {
-        return borrowRecordRepository.findAllByOrderByBorrowDateDesc();
+    /**
+     * Returns one page of borrow history, newest first.
+     *
+     * @param afterId the {@link CursorPage#nextCursor()} of the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowHistoryEntry> getBorrowHistory(BorrowHistoryFilter filter, Long afterId, int size) {
+        List<BorrowHistoryEntry> rows = borrowRecordRepository.findHistoryPage(
+            filter.memberId(), filter.bookId(), filter.from(), filter.to(), afterId, Limit.of(size + 1));
+        return CursorPage.of(rows, size, BorrowHistoryEntry::id);
+    }
+
+    /**
+     * Feeds every matching history entry, newest first, to the consumer straight off the database cursor.
+     *
+     * @return the number of entries visited
+     */
+    @Transactional(readOnly = true)
+    public long forEachHistoryEntry(BorrowHistoryFilter filter, Consumer<BorrowHistoryEntry> consumer) {
+        try (Stream<BorrowHistoryEntry> entries = borrowRecordRepository.streamHistory(
+                filter.memberId(), filter.bookId(), filter.from(), filter.to())) {
+            long visited = 0;
+            for (var iterator = entries.iterator(); iterator.hasNext(); visited++) {
+                consumer.accept(iterator.next());
+            }
+            return visited;
+        }
     }
 }
 
 interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
-    @Query("SELECT br FROM BorrowRecord br WHERE br.member.id = :memberId AND br.book.id = :id AND br.returnDate IS NULL")
-    Optional<BorrowRecord> findByMember_IdAndBook_IdAndReturnDateIsNull(@Param("memberId") Long memberId, @Param("id") Long id);
+    /**
+     * Closes the given loans by primary key; loans that are already closed are left alone and not counted.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BorrowRecord br SET br.returnDate = :returnDate WHERE br.id IN :ids AND br.returnDate IS NULL")
+    int markReturned(@Param("ids") Collection<Long> loanIds, @Param("returnDate") LocalDateTime returnDate);
+
+    @Query("""
+        SELECT new com.example.library.model.OpenLoan(br.id, br.member.id, br.book.id, br.dueDate)
+        FROM BorrowRecord br WHERE br.member.id = :memberId AND br.book.id IN :ids AND br.returnDate IS NULL""")
+    List<OpenLoan> findOpenLoans(@Param("memberId") Long memberId, @Param("ids") Collection<Long> ids);
+
+    @Query("""
+        SELECT new com.example.library.model.BorrowHistoryEntry(
+            br.id, br.member.id, m.name, br.book.id, b.isbn, b.title, br.borrowDate, br.returnDate)
+        FROM BorrowRecord br JOIN br.member m JOIN br.book b
+        WHERE (:memberId IS NULL OR br.member.id = :memberId)
+          AND (:bookId IS NULL OR br.book.id = :bookId)
+          AND (:from IS NULL OR br.borrowDate >= :from)
+          AND (:to IS NULL OR br.borrowDate < :to)
+          AND (:afterId IS NULL
+               OR br.borrowDate < (SELECT c.borrowDate FROM BorrowRecord c WHERE c.id = :afterId)
+               OR (br.borrowDate = (SELECT c.borrowDate FROM BorrowRecord c WHERE c.id = :afterId) AND br.id < :afterId))
+        ORDER BY br.borrowDate DESC, br.id DESC""")
+    List<BorrowHistoryEntry> findHistoryPage(@Param("memberId") Long memberId, @Param("bookId") Long bookId,
+                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             @Param("afterId") Long afterId, Limit limit);
 
-    List<BorrowRecord> findAllByOrderByBorrowDateDesc();
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.example.library.model.BorrowHistoryEntry(
+            br.id, br.member.id, m.name, br.book.id, b.isbn, b.title, br.borrowDate, br.returnDate)
+        FROM BorrowRecord br JOIN br.member m JOIN br.book b
+        WHERE (:memberId IS NULL OR br.member.id = :memberId)
+          AND (:bookId IS NULL OR br.book.id = :bookId)
+          AND (:from IS NULL OR br.borrowDate >= :from)
+          AND (:to IS NULL OR br.borrowDate < :to)
+        ORDER BY br.borrowDate DESC, br.id DESC""")
+    Stream<BorrowHistoryEntry> streamHistory(@Param("memberId") Long memberId, @Param("bookId") Long bookId,
+                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,143 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.library.service.TransactionHooks.afterCommit;
+
+/**
+ * Serves single-title reads from a {@link CatalogSnapshot} instead of the entity cache: a million titles
+ * take tens of megabytes as primitive arrays rather than one {@link Book} with five strings each, and a
+ * lookup is a binary search or a hash probe over arrays that never changes while it is being read.
+ * <p>
+ * The snapshot is loaded at startup by {@link IndexLoader} and extended as titles are added; every change
+ * publishes a new snapshot with a single reference swap, so readers never lock. Copies on the shelf change
+ * with every borrow and are read from {@link InventoryService}'s counters rather than stored here. Titles
+ * the snapshot does not know yet, such as rows inserted by a bulk import, are read from the database once
+ * and added to it. Lookups are not transactional, so a hit never takes a connection; only the reads that
+ * go to the database run in a read-only transaction, on the reader pool.
+ */
+@Slf4j
+@Service
+public class CatalogService {
+    private static final String SELECT_BOOKS_SQL =
+        "SELECT id, isbn, title, author, genre, total_copies FROM books";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.EMPTY);
+
+    public CatalogService(JdbcTemplate jdbcTemplate, InventoryService inventoryService,
+                          PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryService = inventoryService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public CatalogSnapshot snapshot() {
+        return current.get();
+    }
+
+    public Optional<BookSummary> findById(long id) {
+        CatalogSnapshot catalog = current.get();
+        int position = catalog.indexOf(id);
+        if (position < 0) {
+            return loadMissing(SELECT_BOOKS_SQL + " WHERE id = ?", id);
+        }
+        return Optional.of(summary(catalog, position));
+    }
+
+    public Optional<BookSummary> findByIsbn(String isbn) {
+        CatalogSnapshot catalog = current.get();
+        int position = catalog.indexOfIsbn(isbn);
+        if (position < 0) {
+            return loadMissing(SELECT_BOOKS_SQL + " WHERE isbn = ?", isbn);
+        }
+        return Optional.of(summary(catalog, position));
+    }
+
+    /**
+     * Adds a newly saved title once its transaction has committed.
+     */
+    public void onBookAdded(Book book) {
+        afterCommit(() -> publish(() -> add(book)));
+    }
+
+    /**
+     * Raises the stock of a title once the purchase of new copies has committed.
+     */
+    public void onCopiesAdded(long id, int copies) {
+        afterCommit(() -> publish(() -> builder.addCopies(id, copies)));
+    }
+
+    @Transactional(readOnly = true)
+    public void loadCatalog() {
+        CatalogSnapshot catalog = publish(() -> {
+            builder.clear();
+            jdbcTemplate.query(SELECT_BOOKS_SQL + " ORDER BY id", addRow());
+        });
+        log.info("Loaded {} titles into the catalog snapshot (~{} KiB)",
+            catalog.size(), catalog.estimatedBytes() / 1024);
+    }
+
+    private Optional<BookSummary> loadMissing(String sql, Object key) {
+        List<Book> found = readOnlyTransaction.execute(status -> jdbcTemplate.query(sql, toBook(), key));
+        if (found.isEmpty()) {
+            // Nothing to add, so no reason to wait for the lock or publish an identical snapshot
+            return Optional.empty();
+        }
+        CatalogSnapshot catalog = publish(() -> found.forEach(this::add));
+        int position = key instanceof String isbn ? catalog.indexOfIsbn(isbn) : catalog.indexOf((Long) key);
+        return position < 0 ? Optional.empty() : Optional.of(summary(catalog, position));
+    }
+
+    private RowCallbackHandler addRow() {
+        return rs -> builder.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+            rs.getString(5), rs.getInt(6));
+    }
+
+    private static RowMapper<Book> toBook() {
+        return (rs, rowNum) -> Book.builder().id(rs.getLong(1)).isbn(rs.getString(2)).title(rs.getString(3))
+            .author(rs.getString(4)).genre(rs.getString(5)).totalCopies(rs.getInt(6)).build();
+    }
+
+    private void add(Book book) {
+        builder.add(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), book.getGenre(),
+            book.getTotalCopies());
+    }
+
+    private BookSummary summary(CatalogSnapshot catalog, int position) {
+        long id = catalog.id(position);
+        int available = inventoryService.getAvailableCopies(id);
+        if (available < 0) {
+            // No counter yet for this title; the table has the current figure
+            available = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT available_copies FROM books WHERE id = ?", Integer.class, id));
+        }
+        return new BookSummary(id, catalog.isbn(position), catalog.title(position), catalog.author(position),
+            available, catalog.totalCopies(position));
+    }
+
+    private synchronized CatalogSnapshot publish(Runnable change) {
+        change.run();
+        CatalogSnapshot next = builder.snapshot();
+        current.set(next);
+        return next;
+    }
+}
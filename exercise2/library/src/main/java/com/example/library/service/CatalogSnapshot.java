@@ -0,0 +1,323 @@
+package com.example.library.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, read-optimised copy of the catalog held in a handful of primitive arrays instead of one
+ * entity per title: ids in a sorted {@code long[]}, ISBNs and titles as UTF-8 in one {@code byte[]} each
+ * with {@code int[]} offsets, and authors and genres dictionary-encoded as {@code int} codes. Looking a
+ * title up by id (binary search) or ISBN (open-addressing hash table) allocates nothing; only reading a
+ * title or ISBN back out creates its {@code String}.
+ * <p>
+ * Snapshots are produced by a {@link Builder} that grows its arrays in place. A snapshot only ever reads
+ * the first {@link #size()} entries, so appending a title to the builder does not change the snapshots
+ * already handed out, and publishing the next one is a reference swap.
+ */
+public final class CatalogSnapshot {
+    static final CatalogSnapshot EMPTY = new Builder().snapshot();
+
+    private static final int NO_CODE = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final int[] isbnOffsets;
+    private final byte[] isbnBytes;
+    private final int[] isbnHashes;
+    private final int[] isbnSlots;
+    private final int[] titleOffsets;
+    private final byte[] titleBytes;
+    private final int[] authorCodes;
+    private final String[] authors;
+    private final int[] genreCodes;
+    private final String[] genres;
+    private final int[] totalCopies;
+
+    private CatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.isbnOffsets = builder.isbnOffsets;
+        this.isbnBytes = builder.isbnBytes;
+        this.isbnHashes = builder.isbnHashes;
+        this.isbnSlots = builder.isbnSlots;
+        this.titleOffsets = builder.titleOffsets;
+        this.titleBytes = builder.titleBytes;
+        this.authorCodes = builder.authorCodes;
+        this.authors = builder.authors.values;
+        this.genreCodes = builder.genreCodes;
+        this.genres = builder.genres.values;
+        this.totalCopies = builder.totalCopies;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the position of the title, or a negative number if the catalog has no such id
+     */
+    public int indexOf(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * @return the position of the title, or a negative number if the catalog has no such ISBN
+     */
+    public int indexOfIsbn(String isbn) {
+        int hash = isbn.hashCode();
+        int mask = isbnSlots.length - 1;
+        for (int slot = spread(hash) & mask; isbnSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int position = isbnSlots[slot] - 1;
+            // Entries past this snapshot's size were added to the shared table by a later snapshot
+            if (position < size && isbnHashes[position] == hash && isbnEquals(position, isbn)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    public long id(int position) {
+        return ids[checked(position)];
+    }
+
+    public String isbn(int position) {
+        checked(position);
+        return new String(isbnBytes, isbnOffsets[position], isbnOffsets[position + 1] - isbnOffsets[position],
+            StandardCharsets.UTF_8);
+    }
+
+    public String title(int position) {
+        checked(position);
+        return new String(titleBytes, titleOffsets[position], titleOffsets[position + 1] - titleOffsets[position],
+            StandardCharsets.UTF_8);
+    }
+
+    public String author(int position) {
+        int code = authorCodes[checked(position)];
+        return code == NO_CODE ? null : authors[code];
+    }
+
+    public String genre(int position) {
+        int code = genreCodes[checked(position)];
+        return code == NO_CODE ? null : genres[code];
+    }
+
+    public int totalCopies(int position) {
+        return totalCopies[checked(position)];
+    }
+
+    /**
+     * @return the bytes held by the arrays behind this snapshot, shared dictionary strings included
+     */
+    public long estimatedBytes() {
+        long arrays = 8L * ids.length + 4L * (isbnOffsets.length + isbnHashes.length + isbnSlots.length
+            + titleOffsets.length + authorCodes.length + genreCodes.length + totalCopies.length)
+            + isbnBytes.length + titleBytes.length;
+        long dictionaries = 0;
+        for (String[] values : new String[][] {authors, genres}) {
+            for (String value : values) {
+                dictionaries += value == null ? 0 : 40 + value.length();
+            }
+        }
+        return arrays + dictionaries;
+    }
+
+    private int checked(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return position;
+    }
+
+    private boolean isbnEquals(int position, String isbn) {
+        int offset = isbnOffsets[position];
+        int length = isbnOffsets[position + 1] - offset;
+        for (int i = 0; i < isbn.length(); i++) {
+            if (isbn.charAt(i) > 0x7F) {
+                // ISBNs are ASCII; anything else takes the slow path through an encoded copy
+                byte[] encoded = isbn.getBytes(StandardCharsets.UTF_8);
+                return Arrays.equals(isbnBytes, offset, offset + length, encoded, 0, encoded.length);
+            }
+        }
+        if (length != isbn.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (isbnBytes[offset + i] != (byte) isbn.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Accumulates titles in id order and hands out snapshots of what it holds so far. Not thread-safe;
+     * the owner serialises writers, while the snapshots may be read from any thread once published.
+     */
+    static final class Builder {
+        private int size;
+        private long[] ids = new long[16];
+        private int[] isbnOffsets = new int[17];
+        private byte[] isbnBytes = new byte[256];
+        private int[] isbnHashes = new int[16];
+        private int[] isbnSlots = new int[32];
+        private int[] titleOffsets = new int[17];
+        private byte[] titleBytes = new byte[512];
+        private int[] authorCodes = new int[16];
+        private final Dictionary authors = new Dictionary();
+        private int[] genreCodes = new int[16];
+        private final Dictionary genres = new Dictionary();
+        private int[] totalCopies = new int[16];
+
+        CatalogSnapshot snapshot() {
+            return new CatalogSnapshot(this);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Adds a title. Ids are expected in ascending order, as the database assigns them; an id that is
+         * already present is ignored, and one that arrives out of order costs a rebuild of the arrays.
+         */
+        void add(long id, String isbn, String title, String author, String genre, int copies) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position < 0) {
+                    insertOutOfOrder(-position - 1, id, isbn, title, author, genre, copies);
+                }
+                return;
+            }
+            ensureCapacity(size + 1);
+            ids[size] = id;
+            isbnBytes = appendBytes(isbnBytes, isbnOffsets, size, isbn);
+            titleBytes = appendBytes(titleBytes, titleOffsets, size, title);
+            isbnHashes[size] = isbn.hashCode();
+            authorCodes[size] = authors.encode(author);
+            genreCodes[size] = genres.encode(genre);
+            totalCopies[size] = copies;
+            size++;
+            if (size * 2 > isbnSlots.length) {
+                isbnSlots = new int[isbnSlots.length * 2];
+                for (int position = 0; position < size; position++) {
+                    insertSlot(isbnSlots, position);
+                }
+            } else {
+                insertSlot(isbnSlots, size - 1);
+            }
+        }
+
+        /**
+         * Adds copies to the stock of a title. The array is copied first, so snapshots already handed out keep
+         * the count they were created with.
+         */
+        void addCopies(long id, int copies) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                totalCopies = totalCopies.clone();
+                totalCopies[position] += copies;
+            }
+        }
+
+        void clear() {
+            Builder empty = new Builder();
+            size = 0;
+            ids = empty.ids;
+            isbnOffsets = empty.isbnOffsets;
+            isbnBytes = empty.isbnBytes;
+            isbnHashes = empty.isbnHashes;
+            isbnSlots = empty.isbnSlots;
+            titleOffsets = empty.titleOffsets;
+            titleBytes = empty.titleBytes;
+            authorCodes = empty.authorCodes;
+            genreCodes = empty.genreCodes;
+            totalCopies = empty.totalCopies;
+            authors.clear();
+            genres.clear();
+        }
+
+        private void insertOutOfOrder(int at, long id, String isbn, String title, String author, String genre, int copies) {
+            CatalogSnapshot current = snapshot();
+            clear();
+            for (int position = 0; position < current.size(); position++) {
+                if (position == at) {
+                    add(id, isbn, title, author, genre, copies);
+                }
+                add(current.id(position), current.isbn(position), current.title(position),
+                    current.author(position), current.genre(position), current.totalCopies(position));
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int grown = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, grown);
+            isbnOffsets = Arrays.copyOf(isbnOffsets, grown + 1);
+            isbnHashes = Arrays.copyOf(isbnHashes, grown);
+            titleOffsets = Arrays.copyOf(titleOffsets, grown + 1);
+            authorCodes = Arrays.copyOf(authorCodes, grown);
+            genreCodes = Arrays.copyOf(genreCodes, grown);
+            totalCopies = Arrays.copyOf(totalCopies, grown);
+        }
+
+        private void insertSlot(int[] slots, int position) {
+            int mask = slots.length - 1;
+            int slot = spread(isbnHashes[position]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position + 1;
+        }
+
+        private static byte[] appendBytes(byte[] bytes, int[] offsets, int position, String value) {
+            byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            int start = offsets[position];
+            if (start + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(start + encoded.length, bytes.length * 2));
+            }
+            System.arraycopy(encoded, 0, bytes, start, encoded.length);
+            offsets[position + 1] = start + encoded.length;
+            return bytes;
+        }
+    }
+
+    /**
+     * Append-only string dictionary; each distinct value is stored once and referred to by its code.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = codes.size();
+            if (next == values.length) {
+                values = Arrays.copyOf(values, next * 2);
+            }
+            values[next] = value;
+            codes.put(value, next);
+            return next;
+        }
+
+        void clear() {
+            codes.clear();
+            values = new String[16];
+        }
+    }
+}
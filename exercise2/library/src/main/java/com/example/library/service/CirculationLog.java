@@ -0,0 +1,240 @@
+package com.example.library.service;
+
+import com.example.library.model.CirculationEventType;
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of circulation events. Borrows, returns and holds add a row to {@code circulation_events}
+ * in the transaction that performs them, and nothing in the log is ever updated. The {@code books} copy
+ * counts and the open rows of {@code borrow_records} are the current-state projection of the log.
+ * <p>
+ * Periodic snapshots hold the open loans up to a log position, so a point-in-time question such as
+ * "who had this book on date X" reads the last snapshot before X and replays only that book's events
+ * since then along the {@code (book_id, id)} index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CirculationLog {
+    private static final String INSERT_EVENT_SQL =
+        "INSERT INTO circulation_events (event_type, member_id, book_id, occurred_at) VALUES (?, ?, ?, ?)";
+    private static final SQLiteLocalDateTimeConverter DATE_CONVERTER = new SQLiteLocalDateTimeConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryService inventoryService;
+
+    @Value("${library.circulation.snapshot-every-events:10000}")
+    private int snapshotEveryEvents;
+
+    @Value("${library.circulation.rebuild-on-start:true}")
+    private boolean rebuildOnStart;
+
+    public void append(CirculationEventType type, Long memberId, Long bookId, LocalDateTime occurredAt) {
+        jdbcTemplate.update(INSERT_EVENT_SQL, type.name(), memberId, bookId, DATE_CONVERTER.convertToDatabaseColumn(occurredAt));
+    }
+
+    /**
+     * Appends one event per book as a single JDBC batch.
+     */
+    public void append(CirculationEventType type, Long memberId, Collection<Long> bookIds, LocalDateTime occurredAt) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Long at = DATE_CONVERTER.convertToDatabaseColumn(occurredAt);
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, bookIds, bookIds.size(), (ps, bookId) -> {
+            ps.setString(1, type.name());
+            ps.setLong(2, memberId);
+            ps.setLong(3, bookId);
+            ps.setLong(4, at);
+        });
+    }
+
+    /**
+     * @return the ids of the members who had a copy of the book on loan at the given time, one entry per copy
+     */
+    @Transactional(readOnly = true)
+    public List<Long> borrowersAt(Long bookId, LocalDateTime at) {
+        Snapshot base = snapshotAsOf(at);
+        List<Long> borrowers = new ArrayList<>(base.loans().getOrDefault(bookId, List.of()));
+        jdbcTemplate.query("SELECT event_type, member_id FROM circulation_events "
+                + "WHERE book_id = ? AND id > ? AND occurred_at <= ? ORDER BY id",
+            rs -> {
+                apply(borrowers, CirculationEventType.valueOf(rs.getString(1)), rs.getLong(2));
+            },
+            bookId, base.lastEventId(), DATE_CONVERTER.convertToDatabaseColumn(at));
+        return borrowers;
+    }
+
+    /**
+     * @return every loan open at the given time, as book id to the borrowing member ids
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> openLoansAt(LocalDateTime at) {
+        Snapshot base = snapshotAsOf(at);
+        Map<Long, List<Long>> loans = base.loans();
+        jdbcTemplate.query("SELECT event_type, member_id, book_id FROM circulation_events "
+                + "WHERE id > ? AND occurred_at <= ? ORDER BY id",
+            rs -> {
+                apply(loans.computeIfAbsent(rs.getLong(3), id -> new ArrayList<>()), CirculationEventType.valueOf(rs.getString(1)), rs.getLong(2));
+            },
+            base.lastEventId(), DATE_CONVERTER.convertToDatabaseColumn(at));
+        loans.values().removeIf(List::isEmpty);
+        return loans;
+    }
+
+    /**
+     * Writes a new snapshot once the log has grown by {@code library.circulation.snapshot-every-events}
+     * events since the last one.
+     *
+     * @return {@code true} if a snapshot was written
+     */
+    @Scheduled(initialDelayString = "${library.circulation.snapshot-check-interval-ms:600000}",
+               fixedDelayString = "${library.circulation.snapshot-check-interval-ms:600000}")
+    @Transactional
+    public boolean snapshotIfDue() {
+        Long lastSnapshotted = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(last_event_id), 0) FROM circulation_snapshots", Long.class);
+        Long tail = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM circulation_events WHERE id > ?", Long.class, lastSnapshotted);
+        if (tail == null || tail < snapshotEveryEvents) {
+            return false;
+        }
+        takeSnapshot();
+        return true;
+    }
+
+    /**
+     * Replays the events since the last snapshot on top of it and stores the result as a new snapshot.
+     *
+     * @return the number of open loans in the new snapshot
+     */
+    @Transactional
+    public int takeSnapshot() {
+        Snapshot base = latestSnapshot();
+        Map<Long, List<Long>> loans = base.loans();
+        long[] last = {base.lastEventId(), 0};
+        jdbcTemplate.query("SELECT id, event_type, member_id, book_id, occurred_at FROM circulation_events "
+                + "WHERE id > ? ORDER BY id",
+            rs -> {
+                apply(loans.computeIfAbsent(rs.getLong(4), id -> new ArrayList<>()), CirculationEventType.valueOf(rs.getString(2)), rs.getLong(3));
+                last[0] = rs.getLong(1);
+                last[1] = rs.getLong(5);
+            },
+            base.lastEventId());
+        if (last[0] == base.lastEventId()) {
+            return base.loanCount();
+        }
+        loans.values().removeIf(List::isEmpty);
+        Snapshot snapshot = new Snapshot(last[0], loans);
+        jdbcTemplate.update("INSERT INTO circulation_snapshots (last_event_id, as_of, loan_count, open_loans) VALUES (?, ?, ?, ?)",
+            snapshot.lastEventId(), last[1], snapshot.loanCount(), snapshot.encode());
+        log.info("Circulation snapshot at event {} with {} open loans", snapshot.lastEventId(), snapshot.loanCount());
+        return snapshot.loanCount();
+    }
+
+    /**
+     * Recomputes the copies on the shelf of every title from the log: total copies minus the copies the log
+     * shows on loan. A title with no copy on the shelf is only ever left as it is, since a withdrawal is not
+     * in the log and cannot be told apart from a title whose copies are all out; every other count is
+     * replaced by the one the log gives.
+     *
+     * @return the number of titles whose counts changed
+     */
+    @Transactional
+    public int rebuildAvailability() {
+        Map<Long, List<Long>> loans = openLoansAt(LocalDateTime.now());
+        List<Object[]> changes = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, total_copies, available_copies FROM books", rs -> {
+            long id = rs.getLong(1);
+            int onShelf = Math.max(0, rs.getInt(2) - loans.getOrDefault(id, List.of()).size());
+            int current = rs.getInt(3);
+            if (onShelf != current && current > 0) {
+                changes.add(new Object[] {onShelf, onShelf > 0, id});
+            }
+        });
+        if (!changes.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE books SET available_copies = ?, available = ? WHERE id = ?", changes);
+            changes.forEach(change -> inventoryService.correct((Long) change[2], (Integer) change[0]));
+        }
+        log.info("Rebuilt availability from the circulation log: {} titles corrected", changes.size());
+        return changes.size();
+    }
+
+    @Transactional
+    public void rebuildAvailabilityOnStart() {
+        if (rebuildOnStart) {
+            rebuildAvailability();
+        }
+    }
+
+    static void apply(List<Long> borrowers, CirculationEventType type, long memberId) {
+        switch (type) {
+            case BORROWED -> borrowers.add(memberId);
+            case RETURNED -> borrowers.remove(Long.valueOf(memberId));
+            // Holds are recorded for history but do not change who has a copy
+            case HELD, HOLD_CANCELLED -> { }
+        }
+    }
+
+    private Snapshot latestSnapshot() {
+        return jdbcTemplate.query("SELECT last_event_id, open_loans FROM circulation_snapshots ORDER BY last_event_id DESC LIMIT 1",
+            rs -> rs.next() ? Snapshot.decode(rs.getLong(1), rs.getBytes(2)) : Snapshot.EMPTY);
+    }
+
+    private Snapshot snapshotAsOf(LocalDateTime at) {
+        return jdbcTemplate.query("SELECT last_event_id, open_loans FROM circulation_snapshots "
+                + "WHERE as_of <= ? ORDER BY as_of DESC, last_event_id DESC LIMIT 1",
+            rs -> rs.next() ? Snapshot.decode(rs.getLong(1), rs.getBytes(2)) : Snapshot.EMPTY,
+            DATE_CONVERTER.convertToDatabaseColumn(at));
+    }
+
+    /**
+     * Open loans after replaying the log up to {@code lastEventId}, as book id to borrowing member ids.
+     */
+    record Snapshot(long lastEventId, Map<Long, List<Long>> loans) {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+        @Override
+        public Map<Long, List<Long>> loans() {
+            // A working copy, so that replaying a tail never changes the snapshot itself
+            Map<Long, List<Long>> copy = new TreeMap<>();
+            loans.forEach((bookId, members) -> copy.put(bookId, new ArrayList<>(members)));
+            return copy;
+        }
+
+        int loanCount() {
+            return loans.values().stream().mapToInt(List::size).sum();
+        }
+
+        byte[] encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(loanCount() * 2 * Long.BYTES);
+            new TreeMap<>(loans).forEach((bookId, members) -> members.stream().sorted()
+                .forEach(memberId -> buffer.putLong(bookId).putLong(memberId)));
+            return buffer.array();
+        }
+
+        static Snapshot decode(long lastEventId, byte[] packed) {
+            Map<Long, List<Long>> loans = new TreeMap<>();
+            ByteBuffer buffer = ByteBuffer.wrap(packed);
+            while (buffer.remaining() >= 2 * Long.BYTES) {
+                loans.computeIfAbsent(buffer.getLong(), id -> new ArrayList<>()).add(buffer.getLong());
+            }
+            return new Snapshot(lastEventId, loans);
+        }
+    }
+}
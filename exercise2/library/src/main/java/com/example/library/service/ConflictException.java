@@ -0,0 +1,12 @@
+package com.example.library.service;
+
+/**
+ * The request is valid but clashes with the current state, such as borrowing a book with no copy on the
+ * shelf or going over the loan limit. Extends {@link IllegalStateException}, as these were thrown before.
+ */
+public class ConflictException extends IllegalStateException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
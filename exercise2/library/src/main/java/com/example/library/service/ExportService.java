@@ -0,0 +1,342 @@
+package com.example.library.service;
+
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a table to CSV or NDJSON straight off a forward-only JDBC cursor, so memory use does not
+ * depend on the table size. Rows are written in id order; an export that stopped part way is resumed
+ * by passing the last id written as {@code afterId} and appending to the same file. File exports only
+ * replace the file once they are complete, so it never ends in a partial row or a truncated gzip member.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_EVERY_ROWS = 100_000;
+    private static final SQLiteLocalDateTimeConverter DATE_CONVERTER = new SQLiteLocalDateTimeConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public enum Table {
+        BOOKS("books", List.of(
+            Column.number("id"), Column.text("isbn"), Column.text("title"), Column.text("author"), Column.text("genre"),
+            Column.bool("available"), Column.number("total_copies"), Column.number("available_copies"))),
+        MEMBERS("members", List.of(
+            Column.number("id"), Column.text("name"), Column.text("email"), Column.text("phone"))),
+        BORROW_RECORDS("borrow_records", List.of(
+            Column.number("id"), Column.number("member_id"), Column.number("book_id"),
+            Column.timestamp("borrow_date"), Column.timestamp("return_date"), Column.timestamp("due_date"))),
+        CIRCULATION_EVENTS("circulation_events", List.of(
+            Column.number("id"), Column.text("event_type"), Column.number("member_id"), Column.number("book_id"),
+            Column.timestamp("occurred_at")));
+
+        private final String tableName;
+        private final List<Column> columns;
+
+        Table(String tableName, List<Column> columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String tableName() {
+            return tableName;
+        }
+
+        private String selectSql() {
+            return "SELECT " + String.join(", ", columns.stream().map(Column::name).toList())
+                + " FROM " + tableName + " WHERE id > ? ORDER BY id";
+        }
+    }
+
+    public enum Format {
+        CSV("csv"), NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    public enum Compression {
+        NONE(""), GZIP(".gz");
+
+        private final String suffix;
+
+        Compression(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+    }
+
+    /**
+     * @param lastId the id of the last row written, the watermark to resume from; equal to the
+     *               requested {@code afterId} if nothing was written
+     */
+    public record ExportResult(Table table, long rows, long lastId) {
+    }
+
+    /**
+     * Exports to a file. With a non-zero {@code afterId} the rows are appended to the existing file;
+     * a gzip file then simply gains another member, which gzip readers decompress as one stream.
+     * A CSV file that is new or empty starts with the header, even when the export resumes.
+     * <p>
+     * The rows go to a {@code .part} file next to the target, which is moved over it once they are all on
+     * disk. A resumed export first copies the existing file there, so an export that fails or is killed
+     * leaves the file as the last completed run wrote it, and that run's last id is still the one to resume
+     * from.
+     */
+    @Transactional(readOnly = true)
+    public ExportResult export(Table table, Format format, Compression compression, long afterId, Path file) {
+        Path target = file.toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                boolean resume = afterId > 0 && Files.exists(target);
+                if (resume) {
+                    Files.copy(target, partial, StandardCopyOption.REPLACE_EXISTING);
+                }
+                ExportResult result;
+                try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+                     OutputStream out = Channels.newOutputStream(channel)) {
+                    // A resume whose file was gone or empty still starts with the header
+                    result = export(table, format, compression, afterId, out, channel.size() == 0);
+                    channel.force(false);
+                }
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Exported {} {} rows to {} (last id {})", result.rows(), table.tableName(), file, result.lastId());
+                return result;
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export " + table.tableName() + " to " + file, e);
+        }
+    }
+
+    /**
+     * Writes every row with an id greater than {@code afterId} to the stream, which is left open.
+     * The CSV header is only written for an export from the start of the table.
+     */
+    @Transactional(readOnly = true)
+    public ExportResult export(Table table, Format format, Compression compression, long afterId, OutputStream target)
+            throws IOException {
+        return export(table, format, compression, afterId, target, afterId == 0);
+    }
+
+    private ExportResult export(Table table, Format format, Compression compression, long afterId, OutputStream target,
+                                boolean header) throws IOException {
+        OutputStream out = new NonClosingOutputStream(target);
+        if (compression == Compression.GZIP) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (RowWriter writer = format == Format.CSV
+                ? new CsvRowWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE), header)
+                : new NdjsonRowWriter(objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, BUFFER_SIZE), JsonEncoding.UTF8))) {
+            writer.start(table.columns);
+            long[] progress = {0, afterId};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    table.selectSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setLong(1, afterId);
+                return statement;
+            }, row -> {
+                try {
+                    writer.write(table.columns, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress[1] = row.getLong(1);
+                if (++progress[0] % PROGRESS_EVERY_ROWS == 0) {
+                    log.info("Exported {} {} rows so far (last id {})", progress[0], table.tableName(), progress[1]);
+                }
+            });
+            return new ExportResult(table, progress[0], progress[1]);
+        }
+    }
+
+    public record Column(String name, Type type) {
+        enum Type { TEXT, NUMBER, BOOLEAN, TIMESTAMP }
+
+        static Column text(String name) {
+            return new Column(name, Type.TEXT);
+        }
+
+        static Column number(String name) {
+            return new Column(name, Type.NUMBER);
+        }
+
+        static Column bool(String name) {
+            return new Column(name, Type.BOOLEAN);
+        }
+
+        static Column timestamp(String name) {
+            return new Column(name, Type.TIMESTAMP);
+        }
+
+        private Object read(ResultSet row, int index) throws SQLException {
+            Object value = switch (type) {
+                case TEXT -> row.getString(index);
+                case NUMBER -> row.getLong(index);
+                case BOOLEAN -> row.getBoolean(index);
+                case TIMESTAMP -> {
+                    long millis = row.getLong(index);
+                    yield row.wasNull() ? null : DATE_CONVERTER.convertToEntityAttribute(millis);
+                }
+            };
+            return row.wasNull() ? null : value;
+        }
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void start(List<Column> columns) throws IOException;
+
+        void write(List<Column> columns, ResultSet row) throws IOException, SQLException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final boolean header;
+
+        private CsvRowWriter(Writer writer, boolean header) {
+            this.writer = writer;
+            this.header = header;
+        }
+
+        @Override
+        public void start(List<Column> columns) throws IOException {
+            if (header) {
+                writer.write(String.join(",", columns.stream().map(Column::name).toList()));
+                writer.write('\n');
+            }
+        }
+
+        @Override
+        public void write(List<Column> columns, ResultSet row) throws IOException, SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columns.get(i).read(row, i + 1);
+                if (value != null) {
+                    writer.write(csv(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private static String csv(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        private NdjsonRowWriter(JsonGenerator json) {
+            // One object per line, separated by the newline written after each row rather than Jackson's space
+            this.json = json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start(List<Column> columns) {
+        }
+
+        @Override
+        public void write(List<Column> columns, ResultSet row) throws IOException, SQLException {
+            json.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                Object value = column.read(row, i + 1);
+                json.writeFieldName(column.name());
+                switch (value) {
+                    case null -> json.writeNull();
+                    case Long number -> json.writeNumber(number);
+                    case Boolean bool -> json.writeBoolean(bool);
+                    case LocalDateTime dateTime -> json.writeString(dateTime.toString());
+                    default -> json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    /**
+     * Lets the writers close their own buffers and compressors without closing the caller's stream.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
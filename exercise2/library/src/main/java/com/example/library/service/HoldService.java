@@ -0,0 +1,156 @@
+package com.example.library.service;
+
+import com.example.library.model.CirculationEventType;
+import com.example.library.model.Hold;
+import com.example.library.model.QueuedHold;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import static com.example.library.service.TransactionHooks.afterCommit;
+import static com.example.library.service.TransactionHooks.afterRollback;
+
+/**
+ * First-come, first-served hold queues for books that are out on loan. The {@code holds} table is
+ * authoritative; every title with a waiting member also has a lock-free queue in memory, so handing a
+ * returned copy to the next holder is one poll and one DELETE by primary key. Cancelled holds are only
+ * deleted from the table and skipped once they reach the head of the queue, which keeps every queue
+ * operation constant time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+    private final HoldRepository holdRepository;
+    private final BookService bookService;
+    private final MemberService memberService;
+    private final CirculationLog circulationLog;
+    private final Map<Long, Deque<QueuedHold>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Puts the member at the back of the book's queue. Holds are only taken on books with no copy on the shelf.
+     */
+    @Transactional
+    public QueuedHold placeHold(Long memberId, Long bookId) {
+        var member = memberService.getMemberById(memberId)
+            .orElseThrow(() -> new NotFoundException("Member not found"));
+        var book = bookService.getBookSummary(bookId)
+            .orElseThrow(() -> new NotFoundException("Book not found"));
+        if (book.availableCopies() > 0) {
+            throw new ConflictException("Book is available");
+        }
+        if (holdRepository.existsByBookIdAndMemberId(bookId, memberId)) {
+            throw new ConflictException("Member already holds this book");
+        }
+
+        Hold hold = holdRepository.save(Hold.builder()
+            .book(bookService.getBookReference(bookId))
+            .member(member)
+            .placedAt(LocalDateTime.now())
+            .build());
+        QueuedHold queued = new QueuedHold(hold.getId(), bookId, memberId, hold.getPlacedAt());
+        circulationLog.append(CirculationEventType.HELD, memberId, bookId, hold.getPlacedAt());
+        afterCommit(() -> enqueue(queued, false));
+        return queued;
+    }
+
+    @Transactional
+    public void cancelHold(Long memberId, Long bookId) {
+        if (holdRepository.deleteHold(bookId, memberId) == 0) {
+            throw new NotFoundException("No hold found");
+        }
+        circulationLog.append(CirculationEventType.HOLD_CANCELLED, memberId, bookId, LocalDateTime.now());
+        // The queue entry stays behind and is skipped by claimNext, whose DELETE finds nothing to remove
+    }
+
+    /**
+     * Takes the member at the head of the book's queue off it, for a returned copy to be lent straight
+     * to them within the caller's transaction. The hold goes back to the head of the queue if that
+     * transaction rolls back.
+     *
+     * @return the fulfilled hold, or empty if nobody is waiting for the book
+     */
+    @Transactional
+    public Optional<QueuedHold> claimNext(Long bookId) {
+        Deque<QueuedHold> queue = queues.get(bookId);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        QueuedHold next;
+        while ((next = queue.pollFirst()) != null) {
+            if (holdRepository.deleteHold(next.id()) == 1) {
+                QueuedHold claimed = next;
+                afterRollback(() -> enqueue(claimed, true));
+                return Optional.of(claimed);
+            }
+        }
+        // Drop the drained queue; enqueue goes through compute as well, so a concurrent hold is not lost
+        queues.computeIfPresent(bookId, (id, drained) -> drained.isEmpty() ? null : drained);
+        return Optional.empty();
+    }
+
+    /**
+     * @return the holds on the book in the order they will be served
+     */
+    @Transactional(readOnly = true)
+    public List<QueuedHold> getQueue(Long bookId) {
+        return holdRepository.findQueue(bookId);
+    }
+
+    @Transactional(readOnly = true)
+    public void loadQueues() {
+        queues.clear();
+        List<QueuedHold> holds = holdRepository.findAllQueued();
+        holds.forEach(hold -> enqueue(hold, false));
+        log.info("Loaded {} holds on {} titles", holds.size(), queues.size());
+    }
+
+    private void enqueue(QueuedHold hold, boolean first) {
+        queues.compute(hold.bookId(), (id, queue) -> {
+            Deque<QueuedHold> target = queue != null ? queue : new ConcurrentLinkedDeque<>();
+            if (first) {
+                target.offerFirst(hold);
+            } else {
+                target.offerLast(hold);
+            }
+            return target;
+        });
+    }
+}
+
+interface HoldRepository extends JpaRepository<Hold, Long> {
+    boolean existsByBookIdAndMemberId(Long bookId, Long memberId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Hold h WHERE h.id = :id")
+    int deleteHold(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Hold h WHERE h.book.id = :bookId AND h.member.id = :memberId")
+    int deleteHold(@Param("bookId") Long bookId, @Param("memberId") Long memberId);
+
+    @Query("""
+        SELECT new com.example.library.model.QueuedHold(h.id, h.book.id, h.member.id, h.placedAt)
+        FROM Hold h WHERE h.book.id = :bookId ORDER BY h.id""")
+    List<QueuedHold> findQueue(@Param("bookId") Long bookId);
+
+    @Query("""
+        SELECT new com.example.library.model.QueuedHold(h.id, h.book.id, h.member.id, h.placedAt)
+        FROM Hold h ORDER BY h.book.id, h.id""")
+    List<QueuedHold> findAllQueued();
+}
@@ -0,0 +1,35 @@
+package com.example.library.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the in-memory indexes from the database once every bean exists, which is before the web server
+ * accepts requests, before scheduled tasks start and before any runner is called. The console and
+ * {@code --script} both run inside a runner and never return to Spring Boot before the application ends,
+ * so waiting for {@code ApplicationReadyEvent} would leave them without indexes; loading while nothing
+ * else runs also means no update can commit between a loader clearing an index and reading the table.
+ * <p>
+ * The availability rebuild goes first, so the counters and the catalog are read from the corrected rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexLoader implements SmartInitializingSingleton {
+    private final CirculationLog circulationLog;
+    private final InventoryService inventoryService;
+    private final CatalogService catalogService;
+    private final ActiveLoanService activeLoanService;
+    private final HoldService holdService;
+    private final OverdueService overdueService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        circulationLog.rebuildAvailabilityOnStart();
+        inventoryService.loadCounters();
+        catalogService.loadCatalog();
+        activeLoanService.loadIndex();
+        holdService.loadQueues();
+        overdueService.loadIndex();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.library.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.library.service.TransactionHooks.afterCommit;
+import static com.example.library.service.TransactionHooks.afterCompletion;
+import static com.example.library.service.TransactionHooks.afterRollback;
+
+/**
+ * In-memory count of the copies on the shelf per title, so a sold-out title is turned away without a
+ * database round trip. Every title has its own counter, so borrowers of different titles never contend.
+ * The {@code books} table stays authoritative: a title without a counter is always passed through to
+ * the database, and {@link #reconcile()} periodically reloads the counters from it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, AtomicInteger> availableCopies = new ConcurrentHashMap<>();
+    // Titles that had a copy returned while they had no counter, since the last reconcile started
+    private final Set<Long> uncountedReturns = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Takes one copy off the counter. Returns {@code false} only if the title is known to be sold out;
+     * the reservation is handed back if the surrounding transaction rolls back.
+     */
+    public boolean tryReserve(Long bookId) {
+        AtomicInteger counter = availableCopies.get(bookId);
+        if (counter == null) {
+            return true;
+        }
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - 1));
+        afterRollback(counter::incrementAndGet);
+        return true;
+    }
+
+    /**
+     * Puts a returned copy back on the counter once the return has committed.
+     */
+    public void releaseAfterCommit(Long bookId) {
+        afterCommit(() -> {
+            AtomicInteger counter = availableCopies.get(bookId);
+            if (counter != null) {
+                counter.incrementAndGet();
+            } else {
+                uncountedReturns.add(bookId);
+            }
+        });
+    }
+
+    /**
+     * Overwrites a counter the database has just contradicted; titles without a counter are left alone.
+     */
+    public void correct(Long bookId, int copies) {
+        // Applied after completion, so that it overrides a reservation handed back by a rollback
+        afterCompletion(() -> availableCopies.computeIfPresent(bookId, (id, counter) -> {
+            counter.set(copies);
+            return counter;
+        }));
+    }
+
+    public void track(Long bookId, int copies) {
+        afterCommit(() -> availableCopies.computeIfAbsent(bookId, id -> new AtomicInteger()).set(copies));
+    }
+
+    /**
+     * Drops the counter once the surrounding transaction has ended, whether it committed or not, so the
+     * title is read from the table again until the next reconcile.
+     */
+    public void forget(Long bookId) {
+        afterCompletion(() -> availableCopies.remove(bookId));
+    }
+
+    public boolean isAnyCopyAvailable(Long bookId) {
+        AtomicInteger counter = availableCopies.get(bookId);
+        return counter == null || counter.get() > 0;
+    }
+
+    /**
+     * @return the copies on the shelf, or {@code -1} if the title has no counter
+     */
+    public int getAvailableCopies(Long bookId) {
+        AtomicInteger counter = availableCopies.get(bookId);
+        return counter == null ? -1 : counter.get();
+    }
+
+    @Transactional(readOnly = true)
+    public void loadCounters() {
+        int corrected = reconcile();
+        log.info("Loaded availability counters for {} titles ({} set)", availableCopies.size(), corrected);
+    }
+
+    /**
+     * Reloads every counter from {@code books.available_copies} and drops counters of deleted titles.
+     * <p>
+     * Borrows and returns keep committing while the table is read, so a row may already be out of date
+     * when it arrives. A counter is therefore only overwritten if it still holds the value it had before
+     * the read, and a title that had a copy returned while it had no counter is left to the table until
+     * the next run. Either way the skipped counters are settled by a later run.
+     *
+     * @return the number of counters that were missing or disagreed with the database
+     */
+    @Scheduled(initialDelayString = "${library.inventory.reconcile-interval-ms:60000}",
+               fixedDelayString = "${library.inventory.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public int reconcile() {
+        Map<Long, Integer> before = new HashMap<>();
+        availableCopies.forEach((id, counter) -> before.put(id, counter.get()));
+        uncountedReturns.clear();
+        Set<Long> seen = new HashSet<>();
+        AtomicInteger corrected = new AtomicInteger();
+        jdbcTemplate.query("SELECT id, available_copies FROM books", row -> {
+            long id = row.getLong(1);
+            int copies = row.getInt(2);
+            seen.add(id);
+            Integer expected = before.get(id);
+            if (expected == null) {
+                if (!uncountedReturns.contains(id) && availableCopies.putIfAbsent(id, new AtomicInteger(copies)) == null) {
+                    corrected.incrementAndGet();
+                }
+            } else if (expected != copies) {
+                AtomicInteger counter = availableCopies.get(id);
+                if (counter != null && counter.compareAndSet(expected, copies)) {
+                    corrected.incrementAndGet();
+                }
+            }
+        });
+        availableCopies.keySet().retainAll(seen);
+        if (corrected.get() > 0) {
+            log.debug("Reconciled {} availability counters against the books table", corrected.get());
+        }
+        return corrected.get();
+    }
+}
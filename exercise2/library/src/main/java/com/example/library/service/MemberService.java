@@ -1,17 +1,31 @@
 package com.example.library.service;
 
+import com.example.library.config.CacheConfig;
+import com.example.library.model.CursorPage;
 import com.example.library.model.Member;
+import com.example.library.model.MemberSummary;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "library.service", histogram = true, percentiles = {0.5, 0.99})
 public class MemberService {
+    public static final int DEFAULT_LIST_PAGE_SIZE = 50;
+
     private final MemberRepository memberRepository;
     
+    @CachePut(cacheNames = CacheConfig.MEMBERS, key = "#result.id")
     public Member registerMember(String name, String email, String phone) {
         Member member = Member.builder()
             .name(name)
@@ -21,14 +35,50 @@ public class MemberService {
         return memberRepository.save(member);
     }
 
+    @Transactional(readOnly = true)
     public List<Member> getAllMembers() {
         return memberRepository.findAll();
     }
 
+    /**
+     * Returns one page of members in id order, as projections rather than managed entities.
+     *
+     * @param afterId the {@link CursorPage#nextCursor()} of the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MemberSummary> getMemberPage(Long afterId, int size) {
+        List<MemberSummary> rows = memberRepository.findSummaryPage(afterId, Limit.of(size + 1));
+        return CursorPage.of(rows, size, MemberSummary::id);
+    }
+
+    /**
+     * Emptiness probe that reads at most one row instead of loading every member.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasMembers() {
+        return memberRepository.existsByIdNotNull();
+    }
+
+    /**
+     * Cached by id; the returned instance is shared between callers and must not be modified.
+     */
+    @Cacheable(cacheNames = CacheConfig.MEMBERS, key = "#id", unless = "#result == null")
     public Optional<Member> getMemberById(Long id) {
         return memberRepository.findById(id);
     }
+
+    public Member getMemberReference(Long id) {
+        return memberRepository.getReferenceById(id);
+    }
 }
 
 interface MemberRepository extends JpaRepository<Member, Long> {
+    boolean existsByIdNotNull();
+
+    @Query("""
+        SELECT new com.example.library.model.MemberSummary(m.id, m.name, m.email, m.phone)
+        FROM Member m
+        WHERE :afterId IS NULL OR m.id > :afterId
+        ORDER BY m.id""")
+    List<MemberSummary> findSummaryPage(@Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,12 @@
+package com.example.library.service;
+
+/**
+ * A member, book, loan or hold the caller referred to does not exist. Extends
+ * {@link IllegalArgumentException}, so callers that only tell bad input from failures keep working.
+ */
+public class NotFoundException extends IllegalArgumentException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.library.service;
+
+import com.example.library.model.OpenLoan;
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+import static com.example.library.service.TransactionHooks.afterCommit;
+
+/**
+ * Tracks open loans by due date so overdue and soon-due loans are found without scanning
+ * {@code borrow_records}. Loans are kept in one bucket per due day: a query walks only the buckets in its
+ * date range and only the boundary bucket is filtered by time of day, so its cost follows the size of the
+ * answer rather than the number of open loans. The index is loaded when the application starts and
+ * updated when borrows and returns commit; the table stays authoritative and the sweep re-checks every
+ * loan against it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverdueService {
+    private static final String INSERT_NOTICE_SQL = """
+        INSERT OR IGNORE INTO overdue_notices (borrow_record_id, member_id, notice_date, days_overdue, fine_cents)
+        SELECT id, member_id, ?, ?, ? FROM borrow_records WHERE id = ? AND return_date IS NULL""";
+    private static final SQLiteLocalDateTimeConverter DATE_CONVERTER = new SQLiteLocalDateTimeConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, OpenLoan> loans = new ConcurrentHashMap<>();
+    private final NavigableMap<LocalDate, Set<Long>> dueDays = new ConcurrentSkipListMap<>();
+
+    @Value("${library.overdue.fine-per-day-cents:25}")
+    private int finePerDayCents;
+
+    @Value("${library.overdue.max-fine-cents:1000}")
+    private int maxFineCents;
+
+    /**
+     * Adds a loan to the index once the borrow has committed.
+     */
+    public void track(OpenLoan loan) {
+        afterCommit(() -> add(loan));
+    }
+
+    /**
+     * Drops the returned loans from the index once the return has committed.
+     */
+    public void untrack(Collection<Long> loanIds) {
+        afterCommit(() -> loanIds.forEach(this::remove));
+    }
+
+    /**
+     * @return the loans due before {@code now}, earliest due first
+     */
+    public List<OpenLoan> findOverdue(LocalDateTime now) {
+        return collect(dueDays.headMap(now.toLocalDate(), true), loan -> loan.isOverdue(now));
+    }
+
+    /**
+     * @return the loans that are not overdue yet but fall due within the next {@code days} days, earliest first
+     */
+    public List<OpenLoan> findDueWithin(LocalDateTime now, int days) {
+        LocalDateTime until = now.plusDays(days);
+        return collect(dueDays.subMap(now.toLocalDate(), true, until.toLocalDate(), true),
+            loan -> !loan.isOverdue(now) && !loan.dueDate().isAfter(until));
+    }
+
+    public int openLoans() {
+        return loans.size();
+    }
+
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        loans.clear();
+        dueDays.clear();
+        jdbcTemplate.query("SELECT id, member_id, book_id, due_date FROM borrow_records "
+                + "WHERE return_date IS NULL AND due_date IS NOT NULL",
+            rs -> {
+                add(new OpenLoan(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    DATE_CONVERTER.convertToEntityAttribute(rs.getLong(4))));
+            });
+        log.info("Indexed {} open loans by due date", loans.size());
+    }
+
+    @Scheduled(cron = "${library.overdue.sweep-cron:0 0 6 * * *}")
+    @Transactional
+    public void scheduledSweep() {
+        sweep(LocalDateTime.now());
+    }
+
+    /**
+     * Issues the day's notice, with the fine accrued so far, for every loan overdue at {@code now}. All
+     * notices are written as one JDBC batch in one transaction; loans returned in the meantime are skipped
+     * by the insert itself, and a loan that already has a notice for the day is left alone.
+     *
+     * @return the number of notices issued
+     */
+    @Transactional
+    public int sweep(LocalDateTime now) {
+        List<OpenLoan> overdue = findOverdue(now);
+        if (overdue.isEmpty()) {
+            return 0;
+        }
+        Long noticeDate = DATE_CONVERTER.convertToDatabaseColumn(now.toLocalDate().atStartOfDay());
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_NOTICE_SQL, overdue, overdue.size(), (ps, loan) -> {
+            int daysOverdue = daysOverdue(loan, now);
+            ps.setLong(1, noticeDate);
+            ps.setInt(2, daysOverdue);
+            ps.setInt(3, fineCents(daysOverdue));
+            ps.setLong(4, loan.id());
+        });
+
+        Map<Long, Integer> finesByMember = new TreeMap<>();
+        int issued = 0;
+        for (int i = 0; i < overdue.size(); i++) {
+            if (rowCount(inserted, i) > 0) {
+                OpenLoan loan = overdue.get(i);
+                finesByMember.merge(loan.memberId(), fineCents(daysOverdue(loan, now)), Integer::sum);
+                issued++;
+            }
+        }
+        finesByMember.forEach((memberId, fine) ->
+            log.info("Overdue notice for member {}: fines of {} cents outstanding", memberId, fine));
+        log.info("Overdue sweep issued {} notices for {} overdue loans", issued, overdue.size());
+        return issued;
+    }
+
+    int fineCents(int daysOverdue) {
+        return (int) Math.min((long) daysOverdue * finePerDayCents, maxFineCents);
+    }
+
+    static int daysOverdue(OpenLoan loan, LocalDateTime now) {
+        // Any part of a day counts as a full day
+        Duration late = Duration.between(loan.dueDate(), now);
+        long days = late.toDays();
+        return (int) (late.equals(Duration.ofDays(days)) ? days : days + 1);
+    }
+
+    private static int rowCount(int[][] batches, int index) {
+        return batches.length == 0 ? 0 : batches[0][index];
+    }
+
+    private List<OpenLoan> collect(Map<LocalDate, Set<Long>> buckets, Predicate<OpenLoan> filter) {
+        List<OpenLoan> result = new ArrayList<>();
+        buckets.values().forEach(ids -> ids.forEach(id -> {
+            OpenLoan loan = loans.get(id);
+            if (loan != null && filter.test(loan)) {
+                result.add(loan);
+            }
+        }));
+        result.sort(Comparator.comparing(OpenLoan::dueDate).thenComparing(OpenLoan::id));
+        return result;
+    }
+
+    private void add(OpenLoan loan) {
+        OpenLoan previous = loans.put(loan.id(), loan);
+        if (previous != null) {
+            removeFromBucket(previous);
+        }
+        // Added under the bin lock, so removeFromBucket cannot drop the set between the lookup and the add
+        dueDays.compute(loan.dueDate().toLocalDate(), (day, ids) -> {
+            ids = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            ids.add(loan.id());
+            return ids;
+        });
+    }
+
+    private void remove(Long id) {
+        OpenLoan loan = loans.remove(id);
+        if (loan != null) {
+            removeFromBucket(loan);
+        }
+    }
+
+    private void removeFromBucket(OpenLoan loan) {
+        dueDays.computeIfPresent(loan.dueDate().toLocalDate(), (day, ids) -> {
+            ids.remove(loan.id());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
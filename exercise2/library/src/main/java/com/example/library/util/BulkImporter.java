@@ -0,0 +1,101 @@
+package com.example.library.util;
+
+import com.example.library.model.Book;
+import com.example.library.model.Member;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes large imports in fixed-size chunks, one transaction and one JDBC batch per chunk.
+ * Rows are pulled from the iterator as they are needed, so the source is never fully materialized.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkImporter {
+    private static final String INSERT_BOOK_SQL =
+        "INSERT INTO books (isbn, title, author, genre, available, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MEMBER_SQL =
+        "INSERT INTO members (name, email, phone) VALUES (?, ?, ?)";
+    private static final int PROGRESS_EVERY_CHUNKS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public ImportResult importBooks(Iterator<Book> books) {
+        return importInChunks("books", books, INSERT_BOOK_SQL, (ps, book) -> {
+            ps.setString(1, book.getIsbn());
+            ps.setString(2, book.getTitle());
+            ps.setString(3, book.getAuthor());
+            ps.setString(4, book.getGenre());
+            ps.setBoolean(5, book.isAvailable());
+            // Imported stock starts with every copy on the shelf
+            ps.setInt(6, book.getTotalCopies());
+            ps.setInt(7, book.isAvailable() ? book.getTotalCopies() : 0);
+        });
+    }
+
+    public ImportResult importMembers(Iterator<Member> members) {
+        return importInChunks("members", members, INSERT_MEMBER_SQL, (ps, member) -> {
+            ps.setString(1, member.getName());
+            ps.setString(2, member.getEmail());
+            ps.setString(3, member.getPhone());
+        });
+    }
+
+    private <T> ImportResult importInChunks(String name, Iterator<T> rows, String sql,
+                                            ParameterizedPreparedStatementSetter<T> setter) {
+        long start = System.nanoTime();
+        long imported = 0;
+        int chunks = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize) {
+                imported += writeChunk(sql, chunk, setter);
+                chunk.clear();
+                if (++chunks % PROGRESS_EVERY_CHUNKS == 0) {
+                    log.info("Imported {} {} so far ({} rows/s)", imported, name,
+                        Math.round(ratePerSecond(imported, System.nanoTime() - start)));
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += writeChunk(sql, chunk, setter);
+        }
+
+        ImportResult result = new ImportResult(name, imported, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Imported {} {} in {} ms ({} rows/s)", result.rows(), name,
+            result.elapsed().toMillis(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private <T> int writeChunk(String sql, List<T> chunk, ParameterizedPreparedStatementSetter<T> setter) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(sql, chunk, chunk.size(), setter));
+        return chunk.size();
+    }
+
+    private static double ratePerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public record ImportResult(String name, long rows, Duration elapsed) {
+        public double rowsPerSecond() {
+            return ratePerSecond(rows, elapsed.toNanos());
+        }
+    }
+}
@@ -1,35 +1,36 @@
 package com.example.library.util;
 
 import com.example.library.model.Book;
-import com.example.library.model.Member;
 import com.example.library.service.BookService;
 import com.example.library.service.MemberService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.library.util.BulkImporter.ImportResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.annotation.XmlRootElement;
-import jakarta.xml.bind.annotation.XmlAccessorType;
-import jakarta.xml.bind.annotation.XmlAccessType;
-import jakarta.xml.bind.annotation.XmlElement;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
 
 @Slf4j
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Load before the console or a headless command starts
 @RequiredArgsConstructor
 public class DataLoader implements CommandLineRunner {
     private final BookService bookService;
     private final MemberService memberService;
     private final ObjectMapper objectMapper;
+    private final BulkImporter bulkImporter;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public void run(String... args) throws Exception {
@@ -38,7 +39,7 @@ public class DataLoader implements CommandLineRunner {
     
     public void loadInitialData() {
         // Only load initial data if the database is empty
-        if (bookService.getAllBooks().isEmpty() && memberService.getAllMembers().isEmpty()) {
+        if (!bookService.hasBooks() && !memberService.hasMembers()) {
             log.info("Database is empty. Loading initial data...");
             loadBooks();
             loadMembers();
@@ -50,13 +51,22 @@ public class DataLoader implements CommandLineRunner {
 
     private void loadBooks() {
         try {
-            Path dataDir = Paths.get(System.getProperty("user.dir"), "data");
-            Files.createDirectories(dataDir);
-            Path booksFile = dataDir.resolve("books.json");
-            List<Book> books = objectMapper.readValue(booksFile.toFile(), 
-                new TypeReference<List<Book>>() {});
-            books.forEach(bookService::addBook);
-            log.info("Successfully loaded {} books from {}", books.size(), booksFile);
+            Path booksFile = dataDirectory().resolve("books.json");
+            // Walk the top-level array with the streaming parser and bind one book at a time
+            try (JsonParser parser = objectMapper.createParser(booksFile.toFile())) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of books in " + booksFile);
+                }
+                if (parser.nextToken() == JsonToken.END_ARRAY) {
+                    log.info("No books found in {}", booksFile);
+                    return;
+                }
+                MappingIterator<Book> books = objectMapper.readValues(parser, Book.class);
+                var result = record(bulkImporter.importBooks(books));
+                // The indexes were loaded from the empty database before the runners started
+                bookService.reloadIndexes();
+                log.info("Successfully loaded {} books from {}", result.rows(), booksFile);
+            }
         } catch (Exception e) {
             log.error("Error loading books: {}", e.getMessage());
         }
@@ -64,27 +74,25 @@ public class DataLoader implements CommandLineRunner {
 
     private void loadMembers() {
         try {
-            Path dataDir = Paths.get(System.getProperty("user.dir"), "data");
-            Files.createDirectories(dataDir);
-            Path membersFile = dataDir.resolve("members.xml");
-            JAXBContext context = JAXBContext.newInstance(Members.class);
-            Members members = (Members) context.createUnmarshaller().unmarshal(membersFile.toFile());
-            int memberCount = members.getMembers().size();
-            members.getMembers().forEach(member -> 
-                memberService.registerMember(member.getName(), member.getEmail(), member.getPhone())
-            );
-            log.info("Successfully loaded {} members from {}", memberCount, membersFile);
+            Path membersFile = dataDirectory().resolve("members.xml");
+            try (MemberXmlReader members = new MemberXmlReader(membersFile)) {
+                var result = record(bulkImporter.importMembers(members));
+                log.info("Successfully loaded {} members from {}", result.rows(), membersFile);
+            }
         } catch (Exception e) {
             log.error("Error loading members: {}", e.getMessage());
         }
     }
-}
 
-@XmlRootElement(name = "members")
-@XmlAccessorType(XmlAccessType.FIELD)
-@Getter
-@Setter
-class Members {
-    @XmlElement(name = "member")
-    private List<Member> members;
+    private ImportResult record(ImportResult result) {
+        meterRegistry.timer("library.import", "source", result.name()).record(result.elapsed());
+        meterRegistry.counter("library.import.rows", "source", result.name()).increment(result.rows());
+        return result;
+    }
+
+    private Path dataDirectory() throws IOException {
+        Path dataDir = Paths.get(System.getProperty("user.dir"), "data");
+        Files.createDirectories(dataDir);
+        return dataDir;
+    }
 }
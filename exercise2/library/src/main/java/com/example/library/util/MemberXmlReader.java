@@ -0,0 +1,73 @@
+package com.example.library.util;
+
+import com.example.library.model.Member;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams {@code <member>} elements out of a members XML file with StAX, binding one member at a time with JAXB.
+ */
+class MemberXmlReader implements Iterator<Member>, AutoCloseable {
+    private static final String MEMBER_ELEMENT = "member";
+
+    private final InputStream input;
+    private final XMLStreamReader reader;
+    private final Unmarshaller unmarshaller;
+
+    MemberXmlReader(Path file) throws IOException, XMLStreamException, JAXBException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.input = Files.newInputStream(file);
+        this.reader = factory.createXMLStreamReader(input);
+        this.unmarshaller = JAXBContext.newInstance(Member.class).createUnmarshaller();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!(reader.isStartElement() && MEMBER_ELEMENT.equals(reader.getLocalName()))) {
+                if (!reader.hasNext()) {
+                    return false;
+                }
+                reader.next();
+            }
+            return true;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to read members XML", e);
+        }
+    }
+
+    @Override
+    public Member next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            // Unmarshalling consumes the element, leaving the reader just past </member>
+            return unmarshaller.unmarshal(reader, Member.class).getValue();
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Failed to bind member element", e);
+        }
+    }
+
+    @Override
+    public void close() throws XMLStreamException, IOException {
+        try {
+            reader.close();
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.library;
+
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.BatchItemResult.Status;
+import com.example.library.model.BatchMode;
+import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.Member;
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Not transactional: each batch has to commit or roll back on its own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchBorrowTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Test
+    void batchBorrowAndReturnShouldRoundTrip() {
+        // Given
+        Member member = memberService.registerMember("Stack Reader", "stack@example.com", null);
+        List<Long> ids = addBooks(3);
+
+        // When
+        List<BatchItemResult> borrowed = borrowService.borrowBooks(member.getId(), ids, BatchMode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(borrowed).extracting(BatchItemResult::status).containsOnly(Status.BORROWED);
+        ids.forEach(id -> assertThat(bookService.getBookById(id)).get().extracting(Book::isAvailable).isEqualTo(false));
+        var history = borrowService.getBorrowHistory(BorrowHistoryFilter.forMember(member.getId()), null, 10);
+        assertThat(history.items()).hasSize(3).allSatisfy(entry -> assertThat(entry.borrowDate()).isNotNull());
+
+        // When
+        List<BatchItemResult> returned = borrowService.returnBooks(member.getId(), ids, BatchMode.PARTIAL);
+
+        // Then
+        assertThat(returned).extracting(BatchItemResult::status).containsOnly(Status.RETURNED);
+        ids.forEach(id -> assertThat(bookService.getBookById(id)).get().extracting(Book::isAvailable).isEqualTo(true));
+    }
+
+    @Test
+    void allOrNothingBorrowShouldLeaveEveryBookOnTheShelfWhenOneIsTaken() {
+        // Given
+        Member first = memberService.registerMember("First", "first@example.com", null);
+        Member second = memberService.registerMember("Second", "second@example.com", null);
+        List<Long> ids = addBooks(3);
+        borrowService.borrowBook(first.getId(), ids.get(1));
+
+        // When
+        List<BatchItemResult> results = borrowService.borrowBooks(second.getId(), ids, BatchMode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(results).extracting(BatchItemResult::status)
+            .containsExactly(Status.SKIPPED, Status.NOT_AVAILABLE, Status.SKIPPED);
+        assertThat(bookService.getBookById(ids.get(0))).get().extracting(Book::isAvailable).isEqualTo(true);
+        assertThat(bookService.getBookById(ids.get(2))).get().extracting(Book::isAvailable).isEqualTo(true);
+
+        // When
+        List<BatchItemResult> partial = borrowService.borrowBooks(second.getId(), ids, BatchMode.PARTIAL);
+
+        // Then
+        assertThat(partial).extracting(BatchItemResult::status)
+            .containsExactly(Status.BORROWED, Status.NOT_AVAILABLE, Status.BORROWED);
+    }
+
+    private List<Long> addBooks(int count) {
+        String run = Long.toString(System.nanoTime());
+        return IntStream.range(0, count)
+            .mapToObj(i -> bookService.addBook("Stacked " + i, "Batch Author", "batch-" + run + "-" + i).getId())
+            .toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.library;
+
+import com.example.library.model.Book;
+import com.example.library.model.Member;
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a few hot titles from many threads at once. Not transactional on purpose:
+ * every borrow and return has to commit for the other threads to see it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowConcurrencyTest {
+    private static final int THREADS = 200;
+    private static final int HOT_TITLES = 4;
+    private static final int ROUNDS_PER_THREAD = 5;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Test
+    void concurrentBorrowersShouldNeverShareACopy() throws Exception {
+        // Given - a handful of hot titles and one member per thread
+        String run = Long.toString(System.nanoTime());
+        List<Book> books = IntStream.range(0, HOT_TITLES)
+            .mapToObj(i -> bookService.addBook("Hot Title " + i, "Popular Author", "stress-" + run + "-" + i))
+            .toList();
+        List<Member> members = IntStream.range(0, THREADS)
+            .mapToObj(i -> memberService.registerMember("Borrower " + i, "borrower" + i + "@example.com", null))
+            .toList();
+
+        AtomicInteger[] holders = IntStream.range(0, HOT_TITLES)
+            .mapToObj(i -> new AtomicInteger())
+            .toArray(AtomicInteger[]::new);
+        AtomicInteger successfulBorrows = new AtomicInteger();
+        AtomicInteger rejectedBorrows = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When - every thread repeatedly tries to borrow and then return a hot title
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Member member = members.get(t);
+                int title = t % HOT_TITLES;
+                Book book = books.get(title);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS_PER_THREAD; round++) {
+                        try {
+                            borrowService.borrowBook(member.getId(), book.getId());
+                        } catch (IllegalStateException e) {
+                            rejectedBorrows.incrementAndGet();
+                            continue;
+                        }
+                        successfulBorrows.incrementAndGet();
+                        if (holders[title].incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        // Hold the copy briefly so a double-issued copy would overlap with this one
+                        Thread.sleep(1);
+                        holders[title].decrementAndGet();
+                        borrowService.returnBook(member.getId(), book.getId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        }
+
+        // Then - no copy was ever handed to two members and every attempt either won or failed fast
+        assertThat(overlaps).hasValue(0);
+        assertThat(successfulBorrows.get()).isPositive();
+        assertThat(successfulBorrows.get() + rejectedBorrows.get()).isEqualTo(THREADS * ROUNDS_PER_THREAD);
+        books.forEach(book ->
+            assertThat(bookService.getBookById(book.getId()).orElseThrow().isAvailable()).isTrue());
+    }
+
+    @Test
+    void exactlyOneOfManySimultaneousBorrowersShouldWin() throws Exception {
+        // Given
+        Book book = bookService.addBook("Bestseller", "Famous Author", "stress-" + System.nanoTime());
+        List<Member> members = IntStream.range(0, THREADS)
+            .mapToObj(i -> memberService.registerMember("Reader " + i, "reader" + i + "@example.com", null))
+            .toList();
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger losers = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = members.stream()
+                .<Future<?>>map(member -> executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowService.borrowBook(member.getId(), book.getId());
+                        winners.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        losers.incrementAndGet();
+                    }
+                    return null;
+                }))
+                .toList();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        }
+
+        // Then
+        assertThat(winners).hasValue(1);
+        assertThat(losers).hasValue(THREADS - 1);
+        assertThat(bookService.getBookById(book.getId()).orElseThrow().isAvailable()).isFalse();
+    }
+}
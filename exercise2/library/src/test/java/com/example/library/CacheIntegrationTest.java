@@ -0,0 +1,88 @@
+package com.example.library;
+
+import com.example.library.config.CacheConfig;
+import com.example.library.config.CacheMetrics;
+import com.example.library.model.Book;
+import com.example.library.model.Member;
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Test
+    void repeatedLookupsShouldBeServedFromCache() {
+        // Given
+        Member member = memberService.registerMember("Cached Reader", "cached@example.com", null);
+        long hitsBefore = hits(CacheConfig.MEMBERS);
+
+        // When
+        memberService.getMemberById(member.getId());
+        memberService.getMemberById(member.getId());
+
+        // Then
+        assertThat(hits(CacheConfig.MEMBERS) - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void borrowingAndReturningShouldInvalidateCachedBook() {
+        // Given
+        Book book = bookService.addBook("Cached Title", "Cached Author", "cache-" + System.nanoTime());
+        Member member = memberService.registerMember("Borrower", "borrower@example.com", null);
+        assertThat(bookService.getBookById(book.getId())).get().extracting(Book::isAvailable).isEqualTo(true);
+
+        // When
+        borrowService.borrowBook(member.getId(), book.getId());
+
+        // Then
+        assertThat(bookService.getBookById(book.getId())).get().extracting(Book::isAvailable).isEqualTo(false);
+
+        // When
+        borrowService.returnBook(member.getId(), book.getId());
+
+        // Then
+        assertThat(bookService.getBookById(book.getId())).get().extracting(Book::isAvailable).isEqualTo(true);
+    }
+
+    @Test
+    void missingRowsShouldNotBeCached() {
+        // When
+        var missing = bookService.getBookById(Long.MAX_VALUE);
+
+        // Then
+        assertThat(missing).isEmpty();
+        assertThat(cacheManager.getCache(CacheConfig.BOOKS).get(Long.MAX_VALUE)).isNull();
+    }
+
+    private long hits(String cacheName) {
+        return cacheMetrics.snapshot().stream()
+            .filter(snapshot -> snapshot.cacheName().equals(cacheName))
+            .findFirst()
+            .orElseThrow()
+            .hits();
+    }
+}
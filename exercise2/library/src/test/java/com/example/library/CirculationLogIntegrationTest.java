@@ -0,0 +1,70 @@
+package com.example.library;
+
+import com.example.library.model.Book;
+import com.example.library.model.CirculationEventType;
+import com.example.library.service.BookService;
+import com.example.library.service.CirculationLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CirculationLogIntegrationTest {
+
+    @Autowired
+    private CirculationLog circulationLog;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void borrowersAtShouldReplayTheLogFromTheLastSnapshotBeforeTheGivenTime() {
+        // Given - a timeline after everything other tests have logged, so the snapshot below covers it
+        Book book = bookService.addBook("Point in Time", "Log Author", "log-" + System.nanoTime());
+        LocalDateTime start = LocalDateTime.now().plusYears(1).withNano(0);
+        circulationLog.append(CirculationEventType.BORROWED, 1L, book.getId(), start);
+        circulationLog.append(CirculationEventType.RETURNED, 1L, book.getId(), start.plusDays(2));
+        circulationLog.append(CirculationEventType.HELD, 3L, book.getId(), start.plusDays(2));
+        circulationLog.append(CirculationEventType.BORROWED, 2L, book.getId(), start.plusDays(3));
+        circulationLog.takeSnapshot();
+        circulationLog.append(CirculationEventType.RETURNED, 2L, book.getId(), start.plusDays(5));
+
+        // When / Then
+        assertThat(circulationLog.borrowersAt(book.getId(), start.plusDays(1))).containsExactly(1L);
+        assertThat(circulationLog.borrowersAt(book.getId(), start.plusDays(2).plusHours(1))).isEmpty();
+        assertThat(circulationLog.borrowersAt(book.getId(), start.plusDays(4))).containsExactly(2L);
+        assertThat(circulationLog.borrowersAt(book.getId(), start.plusDays(6))).isEmpty();
+        assertThat(circulationLog.openLoansAt(start.plusDays(4))).containsEntry(book.getId(), List.of(2L));
+    }
+
+    @Test
+    void rebuildAvailabilityShouldCorrectCountsFromTheLogButKeepWithdrawnTitlesOffTheShelf() {
+        // Given - one title with more copies on the shelf than it owns, one withdrawn by hand
+        Book drifted = bookService.addBook("Drifted", "Log Author", "log-" + System.nanoTime());
+        jdbcTemplate.update("UPDATE books SET available_copies = 3 WHERE id = ?", drifted.getId());
+        Book withdrawn = bookService.addBook("Withdrawn", "Log Author", "log-" + System.nanoTime());
+        bookService.updateBookAvailability(withdrawn.getId(), false);
+
+        // When
+        circulationLog.rebuildAvailability();
+
+        // Then
+        assertThat(availableCopies(drifted.getId())).isEqualTo(1);
+        assertThat(availableCopies(withdrawn.getId())).isZero();
+    }
+
+    private int availableCopies(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT available_copies FROM books WHERE id = ?", Integer.class, bookId);
+    }
+}
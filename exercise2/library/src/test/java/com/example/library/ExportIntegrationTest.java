@@ -0,0 +1,157 @@
+package com.example.library;
+
+import com.example.library.model.Book;
+import com.example.library.service.BookService;
+import com.example.library.service.ExportService;
+import com.example.library.service.ExportService.Compression;
+import com.example.library.service.ExportService.ExportResult;
+import com.example.library.service.ExportService.Format;
+import com.example.library.service.ExportService.Table;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportIntegrationTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void csvExportShouldQuoteValuesAndStartAfterWatermark() throws Exception {
+        // Given
+        long watermark = maxBookId();
+        Book book = bookService.addBook("Eats, Shoots \"and\" Leaves", "Lynne Truss", "export-" + System.nanoTime());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ExportResult result = exportService.export(Table.BOOKS, Format.CSV, Compression.NONE, watermark, out);
+
+        // Then - a resumed export has no header
+        assertThat(result.rows()).isEqualTo(1);
+        assertThat(result.lastId()).isEqualTo(book.getId());
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            book.getId() + "," + book.getIsbn() + ",\"Eats, Shoots \"\"and\"\" Leaves\",Lynne Truss,,true,1,1\n");
+    }
+
+    @Test
+    void gzipNdjsonExportShouldWriteOneObjectPerLine() throws Exception {
+        // Given
+        long watermark = maxBookId();
+        bookService.addBook("First", "Author", "ndjson-1-" + System.nanoTime());
+        bookService.addBook("Second", "Author", "ndjson-2-" + System.nanoTime());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(Table.BOOKS, Format.NDJSON, Compression.GZIP, watermark, out);
+
+        // Then
+        List<String> lines = readLines(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.getFirst());
+        assertThat(first.get("title").asText()).isEqualTo("First");
+        assertThat(first.get("available").asBoolean()).isTrue();
+        assertThat(first.get("genre").isNull()).isTrue();
+    }
+
+    @Test
+    void resumedFileExportShouldAppendWithoutSecondHeader() throws Exception {
+        // Given
+        long watermark = maxBookId();
+        bookService.addBook("Part One", "Author", "resume-1-" + System.nanoTime());
+        Path file = tempDir.resolve("books.csv");
+        ExportResult firstRun = exportService.export(Table.BOOKS, Format.CSV, Compression.NONE, 0, file);
+        bookService.addBook("Part Two", "Author", "resume-2-" + System.nanoTime());
+
+        // When
+        ExportResult secondRun = exportService.export(Table.BOOKS, Format.CSV, Compression.NONE, firstRun.lastId(), file);
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(secondRun.rows()).isEqualTo(1);
+        assertThat(lines.getFirst()).startsWith("id,isbn,title");
+        assertThat(lines).filteredOn(line -> line.startsWith("id,")).hasSize(1);
+        assertThat(lines).hasSize(1 + (int) (firstRun.rows() + secondRun.rows()));
+        assertThat(lines.getLast()).contains("Part Two");
+        assertThat(firstRun.lastId()).isGreaterThan(watermark);
+    }
+
+    @Test
+    void resumedFileExportShouldWriteTheHeaderWhenTheFileIsGone() throws Exception {
+        // Given
+        long watermark = maxBookId();
+        bookService.addBook("Resumed", "Author", "missing-" + System.nanoTime());
+        Path file = tempDir.resolve("missing.csv");
+
+        // When
+        ExportResult result = exportService.export(Table.BOOKS, Format.CSV, Compression.NONE, watermark, file);
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines.getFirst()).startsWith("id,isbn,title");
+        assertThat(lines).hasSize(1 + (int) result.rows());
+        assertThat(lines.getLast()).contains("Resumed");
+    }
+
+    @Test
+    void resumedFileExportShouldNotKeepWhatAnInterruptedRunLeftBehind() throws Exception {
+        // Given - a completed gzip export, and the partial file of a later run that was killed mid-member
+        bookService.addBook("Before", "Author", "interrupted-1-" + System.nanoTime());
+        Path file = tempDir.resolve("books.ndjson.gz");
+        ExportResult firstRun = exportService.export(Table.BOOKS, Format.NDJSON, Compression.GZIP, 0, file);
+        byte[] completed = Files.readAllBytes(file);
+        Files.write(tempDir.resolve("books.ndjson.gz.part"), new byte[] {0x1f, (byte) 0x8b, 8, 0, 42});
+        bookService.addBook("After", "Author", "interrupted-2-" + System.nanoTime());
+
+        // When
+        ExportResult secondRun = exportService.export(Table.BOOKS, Format.NDJSON, Compression.GZIP, firstRun.lastId(), file);
+
+        // Then - the file is the first run followed by one clean member, and no partial file is left
+        byte[] resumed = Files.readAllBytes(file);
+        assertThat(resumed).startsWith(completed);
+        List<String> lines = readLines(new GZIPInputStream(new ByteArrayInputStream(resumed)));
+        assertThat(lines).hasSize((int) (firstRun.rows() + secondRun.rows()));
+        assertThat(objectMapper.readTree(lines.getLast()).get("title").asText()).isEqualTo("After");
+        assertThat(tempDir.resolve("books.ndjson.gz.part")).doesNotExist();
+    }
+
+    private long maxBookId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM books", Long.class);
+        return max != null ? max : 0;
+    }
+
+    private static List<String> readLines(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.library;
 
 import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
 import com.example.library.model.BorrowRecord;
 import com.example.library.model.Member;
 import com.example.library.service.BookService;
@@ -9,6 +11,7 @@ import com.example.library.service.MemberService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,9 @@ class IntegrationTest {
     @Autowired
     private BorrowService borrowService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void testCompleteBookBorrowingFlow() {
         // Given - Create a book
@@ -71,11 +77,83 @@ class IntegrationTest {
         assertThat(returnedBook.isAvailable()).isTrue();
 
         // And - Borrow history should be updated
-        BorrowRecord updatedRecord = borrowService.getBorrowHistory().stream()
-            .filter(r -> r.getBook().getId().equals(book.getId()))
+        BorrowHistoryEntry updatedRecord = borrowService
+            .getBorrowHistory(BorrowHistoryFilter.forBook(book.getId()), null, 1)
+            .items().stream()
             .findFirst()
             .orElseThrow();
-        assertThat(updatedRecord.getReturnDate()).isNotNull();
+        assertThat(updatedRecord.memberId()).isEqualTo(member.getId());
+        assertThat(updatedRecord.returnDate()).isNotNull();
+    }
+
+    @Test
+    void testReturningOneOfTwoCopiesShouldCloseOneLoan() {
+        // Given - A member borrows both copies of a title
+        Book book = bookService.addBook("Two Copies", "Copy Author", "978-0000000002");
+        bookService.addCopies(book.getId(), 1);
+        Member member = memberService.registerMember("Eve", "eve@example.com", "333-444-5555");
+        borrowService.borrowBook(member.getId(), book.getId());
+        borrowService.borrowBook(member.getId(), book.getId());
+
+        // When - One copy comes back
+        borrowService.returnBook(member.getId(), book.getId());
+
+        // Then - One loan stays open and one copy is back on the shelf
+        var history = borrowService.getBorrowHistory(BorrowHistoryFilter.forBook(book.getId()), null, 10).items();
+        assertThat(history).hasSize(2);
+        assertThat(history).filteredOn(entry -> entry.returnDate() == null).hasSize(1);
+        assertThat(bookService.getBookById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+
+        // And - The second copy can still be returned
+        borrowService.returnBook(member.getId(), book.getId());
+        assertThat(bookService.getBookById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(2);
+    }
+
+    @Test
+    void testRestoringAWithdrawnTitleShouldKeepCopiesOnLoanOffTheShelf() {
+        // Given - Two copies, one of them on loan
+        Book book = bookService.addBook("Withdrawn", "Shelf Author", "978-0000000004");
+        bookService.addCopies(book.getId(), 1);
+        Member member = memberService.registerMember("Frank", "frank@example.com", "555-666-7777");
+        borrowService.borrowBook(member.getId(), book.getId());
+
+        // When - The title is withdrawn
+        assertThat(bookService.updateBookAvailability(book.getId(), false)).isTrue();
+
+        // Then - Nothing is left to borrow
+        Book withdrawn = bookService.getBookById(book.getId()).orElseThrow();
+        assertThat(withdrawn.getAvailableCopies()).isZero();
+        assertThat(withdrawn.isAvailable()).isFalse();
+
+        // When - It is put back in circulation
+        bookService.updateBookAvailability(book.getId(), true);
+
+        // Then - Only the copy that is not on loan is back on the shelf
+        Book restored = bookService.getBookById(book.getId()).orElseThrow();
+        assertThat(restored.getAvailableCopies()).isEqualTo(1);
+        assertThat(restored.isAvailable()).isTrue();
+        assertThat(bookService.updateBookAvailability(-1L, true)).isFalse();
+    }
+
+    @Test
+    void testSearchShouldUseTheFullTextIndexKeptInSyncByTriggers() {
+        // Given - A book added through the service, indexed by the insert trigger
+        Book book = bookService.addBook("Thermodynamics Primer", "Ingrid Quillfeather", "978-0000000003");
+
+        // Then - Terms of three or more characters match anywhere in the title or author
+        assertThat(bookService.searchBooks("modyna")).extracting(Book::getId).containsExactly(book.getId());
+        assertThat(bookService.searchBooks("QUILLfeather")).extracting(Book::getId).containsExactly(book.getId());
+        assertThat(bookService.searchBooks("Primer \"Ingrid")).isEmpty();
+
+        // And - Shorter terms fall back to the substring scan
+        assertThat(bookService.searchBooks("Qu")).extracting(Book::getId).contains(book.getId());
+
+        // When - The title changes
+        jdbcTemplate.update("UPDATE books SET title = 'Entropy Handbook' WHERE id = ?", book.getId());
+
+        // Then - The update trigger replaces the indexed title
+        assertThat(bookService.searchBooks("modyna")).isEmpty();
+        assertThat(bookService.searchBooks("ropy hand")).extracting(Book::getId).containsExactly(book.getId());
     }
 
     @Test
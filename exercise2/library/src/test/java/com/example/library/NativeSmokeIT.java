@@ -0,0 +1,78 @@
+package com.example.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native binary built by the {@code native} profile ({@code mvn -Pnative verify}) against a fresh
+ * working directory: the first launch migrates an empty database, imports the sample data and borrows and
+ * returns a book from a script; the second one exports the borrow records it left behind.
+ */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeIT {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void nativeBinaryShouldMigrateLoadDataAndBorrowAndReturnABook() throws Exception {
+        // Given
+        Path dataDir = Files.createDirectories(workDir.resolve("data"));
+        Path sampleData = Path.of(System.getProperty("native.sampleData", "data"));
+        Files.copy(sampleData.resolve("books.json"), dataDir.resolve("books.json"));
+        Files.copy(sampleData.resolve("members.xml"), dataDir.resolve("members.xml"));
+        Files.writeString(workDir.resolve("smoke.txt"), """
+            borrow 1 1
+            return 1 1
+            register "Kiosk Smoke Test" smoke@example.com
+            """);
+
+        // When
+        Result script = run("--script=smoke.txt");
+
+        // Then
+        assertThat(script.exitCode()).as(script.output()).isZero();
+        assertThat(script.output())
+            .contains("Successfully loaded")
+            .contains("3 succeeded, 0 failed");
+        assertThat(dataDir.resolve("library.db")).exists();
+
+        // When
+        Result export = run("--export=borrow_records", "--format=csv", "--out=records.csv");
+
+        // Then
+        assertThat(export.exitCode()).as(export.output()).isZero();
+        List<String> lines = Files.readAllLines(workDir.resolve("records.csv"));
+        assertThat(lines).hasSize(2);
+    }
+
+    private Result run(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("native.binary"));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+            .directory(workDir.toFile())
+            .redirectErrorStream(true)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Native binary did not exit:\n" + output);
+        }
+        return new Result(process.exitValue(), output);
+    }
+
+    private record Result(int exitCode, String output) {
+    }
+}
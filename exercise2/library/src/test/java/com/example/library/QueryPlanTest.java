@@ -0,0 +1,123 @@
+package com.example.library;
+
+import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.Member;
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the service layer against the real Liquibase schema, records every SQL statement Hibernate
+ * issues against {@code borrow_records} and fails if SQLite plans any of them as a full table scan
+ * or an unindexed sort.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.library.QueryPlanTest$RecordingStatementInspector"
+})
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void migratedDatabase(DynamicPropertyRegistry registry) throws IOException {
+        var databaseFile = Files.createTempDirectory("query-plan").resolve("library.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + databaseFile);
+    }
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void borrowRecordQueriesShouldUseIndexes() {
+        // Given
+        Book book = bookService.addBook("Query Plans", "Plan Author", "plan-" + System.nanoTime());
+        Member member = memberService.registerMember("Planner", "planner@example.com", "555-0100");
+
+        // When - exercise every repository path that touches borrow_records
+        borrowService.borrowBook(member.getId(), book.getId());
+        borrowService.returnBook(member.getId(), book.getId());
+        var firstPage = borrowService.getBorrowHistory(BorrowHistoryFilter.all(), null, 1);
+        borrowService.getBorrowHistory(BorrowHistoryFilter.forMember(member.getId()), firstPage.items().getFirst().id(), 1);
+        borrowService.forEachHistoryEntry(BorrowHistoryFilter.forBook(book.getId()), entry -> { });
+
+        // Then
+        List<String> statements = RecordingStatementInspector.STATEMENTS.stream()
+            .filter(sql -> sql.contains("borrow_records"))
+            .toList();
+        assertThat(statements).isNotEmpty();
+        statements.forEach(sql ->
+            assertThat(queryPlan(sql))
+                .as("Query plan for: %s", sql)
+                .noneMatch(QueryPlanTest::isFullScan));
+    }
+
+    private List<String> queryPlan(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                List<String> details = new ArrayList<>();
+                try (ResultSet plan = statement.executeQuery()) {
+                    while (plan.next()) {
+                        details.add(plan.getString("detail"));
+                    }
+                }
+                return details;
+            }
+        });
+    }
+
+    private static boolean isFullScan(String detail) {
+        // "SCAN t USING INDEX ..." walks an index in order; a bare "SCAN t" reads every row of the table
+        return (detail.startsWith("SCAN ") && !detail.contains(" USING "))
+            || detail.contains("USE TEMP B-TREE");
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.library;
+
+import com.example.library.model.OpenLoan;
+import com.example.library.model.QueuedHold;
+import com.example.library.service.ActiveLoanService;
+import com.example.library.service.CatalogService;
+import com.example.library.service.HoldService;
+import com.example.library.service.InventoryService;
+import com.example.library.service.OverdueService;
+import com.example.library.util.SQLiteLocalDateTimeConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application as {@code main} does, outside the test profile so the console runner is part of
+ * it, on a database that already holds an overdue loan and a hold, and checks what the in-memory indexes
+ * contain by the time the runners are called. The console and {@code --script} never return from their
+ * runner, so anything loaded later is never seen by them.
+ */
+class StartupIndexTest {
+    private static final SQLiteLocalDateTimeConverter DATE_CONVERTER = new SQLiteLocalDateTimeConverter();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void indexesShouldBeLoadedBeforeTheRunnersAreCalled() {
+        // Given
+        String url = "jdbc:sqlite:" + directory.resolve("library.db");
+        long bookId;
+        long borrowerId;
+        long holderId;
+        try (ConfigurableApplicationContext context = start(url, null)) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            jdbc.update("INSERT INTO books (isbn, title, author, available, total_copies, available_copies) "
+                + "VALUES ('startup-1', 'Startup', 'Loader', 0, 1, 0)");
+            bookId = jdbc.queryForObject("SELECT id FROM books WHERE isbn = 'startup-1'", Long.class);
+            borrowerId = insertMember(jdbc, "borrower@example.com");
+            holderId = insertMember(jdbc, "holder@example.com");
+            LocalDateTime borrowed = LocalDateTime.now().minusDays(30);
+            jdbc.update("INSERT INTO borrow_records (member_id, book_id, borrow_date, due_date) VALUES (?, ?, ?, ?)",
+                borrowerId, bookId, DATE_CONVERTER.convertToDatabaseColumn(borrowed),
+                DATE_CONVERTER.convertToDatabaseColumn(borrowed.plusDays(14)));
+            jdbc.update("INSERT INTO holds (book_id, member_id, placed_at) VALUES (?, ?, ?)",
+                bookId, holderId, DATE_CONVERTER.convertToDatabaseColumn(borrowed.plusDays(1)));
+        }
+
+        // When
+        AtomicReference<Observed> observed = new AtomicReference<>();
+        try (ConfigurableApplicationContext context = start(url, running -> observed.set(new Observed(
+                running.getBean(ActiveLoanService.class).getActiveLoans(borrowerId),
+                running.getBean(OverdueService.class).findOverdue(LocalDateTime.now()),
+                running.getBean(InventoryService.class).getAvailableCopies(bookId),
+                running.getBean(CatalogService.class).snapshot().indexOf(bookId) >= 0,
+                running.getBean(HoldService.class).claimNext(bookId))))) {
+            // The runners have all been called once the context is returned
+        }
+
+        // Then
+        Observed atRunner = observed.get();
+        assertThat(atRunner).isNotNull();
+        assertThat(atRunner.activeLoans()).containsExactly(bookId);
+        assertThat(atRunner.overdue()).extracting(OpenLoan::bookId).containsExactly(bookId);
+        assertThat(atRunner.availableCopies()).isZero();
+        assertThat(atRunner.catalogued()).isTrue();
+        assertThat(atRunner.nextHold()).map(QueuedHold::memberId).contains(holderId);
+    }
+
+    private static long insertMember(JdbcTemplate jdbc, String email) {
+        jdbc.update("INSERT INTO members (name, email) VALUES ('Startup Member', ?)", email);
+        return jdbc.queryForObject("SELECT id FROM members WHERE email = ?", Long.class, email);
+    }
+
+    /**
+     * Runs the application with the default profile and its real runners, plus one more runner that hands
+     * the context to {@code atRunner} if it is set.
+     */
+    private static ConfigurableApplicationContext start(String url, Consumer<ConfigurableApplicationContext> atRunner) {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+            .properties(
+                "spring.datasource.url=" + url,
+                "spring.main.web-application-type=none",
+                "library.console.enabled=false",
+                "library.sql-trace.enabled=false",
+                "logging.level.root=WARN")
+            .initializers(context -> {
+                if (atRunner != null) {
+                    context.getBeanFactory().registerSingleton("indexProbe",
+                        (ApplicationRunner) args -> atRunner.accept(context));
+                }
+            })
+            .run();
+    }
+
+    private record Observed(List<Long> activeLoans, List<OpenLoan> overdue, int availableCopies,
+                            boolean catalogued, Optional<QueuedHold> nextHold) {
+    }
+}
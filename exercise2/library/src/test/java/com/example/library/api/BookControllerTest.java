@@ -0,0 +1,129 @@
+package com.example.library.api;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.service.BookService;
+import com.example.library.service.CatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class BookControllerTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private CatalogService catalogService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(bookService, catalogService))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .addFilters(new ShallowEtagHeaderFilter())
+            .build();
+    }
+
+    @Test
+    void searchShouldReturnMatchingBooksAndClampPageSize() throws Exception {
+        // Given
+        Book book = Book.builder().id(1L).isbn("123").title("Effective Java").author("Joshua Bloch").available(true).build();
+        when(bookService.searchBooks("java", 0, BookController.MAX_PAGE_SIZE)).thenReturn(List.of(book));
+
+        // When / Then
+        mockMvc.perform(get("/api/books").param("q", "java").param("size", "100000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].title").value("Effective Java"))
+            .andExpect(jsonPath("$[0].available").value(true));
+    }
+
+    @Test
+    void searchShouldRejectPagesOutOfRange() throws Exception {
+        // When / Then - a negative page, and one whose offset would overflow an int
+        mockMvc.perform(get("/api/books").param("q", "java").param("page", "-1"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books").param("q", "java").param("page", "5000000").param("size", "500"))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void unchangedCatalogReadShouldAnswerNotModified() throws Exception {
+        // Given
+        var book = new BookSummary(1L, "123", "Effective Java", "Joshua Bloch", 1, 1);
+        when(catalogService.findById(1L)).thenReturn(Optional.of(book));
+        MvcResult first = mockMvc.perform(get("/api/books/1"))
+            .andExpect(status().isOk())
+            .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When / Then
+        assertThat(etag).isNotBlank();
+        mockMvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void unknownBookShouldReturnNotFound() throws Exception {
+        // Given
+        when(catalogService.findById(42L)).thenReturn(Optional.empty());
+
+        // When / Then
+        mockMvc.perform(get("/api/books/42"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.detail").value("Book not found"));
+    }
+
+    @Test
+    void bookShouldBeFoundByIsbn() throws Exception {
+        // Given
+        var book = new BookSummary(1L, "978-0134685991", "Effective Java", "Joshua Bloch", 2, 3);
+        when(catalogService.findByIsbn("978-0134685991")).thenReturn(Optional.of(book));
+
+        // When / Then
+        mockMvc.perform(get("/api/books/isbn/978-0134685991"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.availableCopies").value(2))
+            .andExpect(jsonPath("$.totalCopies").value(3));
+    }
+
+    @Test
+    void addBookShouldReturnCreatedBook() throws Exception {
+        // Given
+        Book book = Book.builder().id(7L).isbn("999").title("New").author("Writer").available(true).build();
+        when(bookService.addBook("New", "Writer", "999")).thenReturn(book);
+
+        // When / Then
+        mockMvc.perform(post("/api/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"title": "New", "author": "Writer", "isbn": "999"}
+                    """))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(7));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.library.api;
+
+import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
+import com.example.library.model.BorrowRecord;
+import com.example.library.model.CursorPage;
+import com.example.library.model.Member;
+import com.example.library.model.OpenLoan;
+import com.example.library.service.BorrowService;
+import com.example.library.service.ConflictException;
+import com.example.library.service.NotFoundException;
+import com.example.library.service.OverdueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowControllerTest {
+
+    @Mock
+    private BorrowService borrowService;
+
+    @Mock
+    private OverdueService overdueService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BorrowController(borrowService, overdueService))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+    }
+
+    @Test
+    void borrowShouldReturnCreatedLoan() throws Exception {
+        // Given
+        BorrowRecord record = BorrowRecord.builder()
+            .id(5L)
+            .member(Member.builder().id(1L).build())
+            .book(Book.builder().id(2L).build())
+            .borrowDate(LocalDateTime.now())
+            .build();
+        when(borrowService.borrowBook(1L, 2L)).thenReturn(record);
+
+        // When / Then
+        mockMvc.perform(post("/api/members/1/loans/2"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(5))
+            .andExpect(jsonPath("$.memberId").value(1))
+            .andExpect(jsonPath("$.bookId").value(2));
+    }
+
+    @Test
+    void borrowingUnavailableBookShouldReturnConflict() throws Exception {
+        // Given
+        when(borrowService.borrowBook(1L, 2L)).thenThrow(new ConflictException("Book is not available"));
+
+        // When / Then
+        mockMvc.perform(post("/api/members/1/loans/2"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.detail").value("Book is not available"));
+    }
+
+    @Test
+    void otherIllegalStateShouldNotBeReportedAsConflict() {
+        // Given
+        when(borrowService.borrowBook(1L, 2L)).thenThrow(new IllegalStateException("Connection pool has been shut down"));
+
+        // When / Then
+        assertThatThrownBy(() -> mockMvc.perform(post("/api/members/1/loans/2")))
+            .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void returnShouldReturnNoContent() throws Exception {
+        // When / Then
+        mockMvc.perform(delete("/api/members/1/loans/2"))
+            .andExpect(status().isNoContent());
+        verify(borrowService).returnBook(1L, 2L);
+    }
+
+    @Test
+    void returningWithoutActiveLoanShouldReturnNotFound() throws Exception {
+        // Given
+        doThrow(new NotFoundException("No active borrow record found"))
+            .when(borrowService).returnBook(1L, 2L);
+
+        // When / Then
+        mockMvc.perform(delete("/api/members/1/loans/2"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batchWithoutBookIdsShouldReturnBadRequest() throws Exception {
+        // When / Then
+        mockMvc.perform(post("/api/members/1/loans").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/members/1/returns").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\": [1, null]}"))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(borrowService);
+    }
+
+    @Test
+    void historyShouldPassFilterAndCursor() throws Exception {
+        // Given
+        var entry = new BorrowHistoryEntry(9L, 1L, "John", 2L, "123", "Book 1", null, null);
+        when(borrowService.getBorrowHistory(BorrowHistoryFilter.forMember(1L), 10L, 1))
+            .thenReturn(new CursorPage<>(List.of(entry), 9L));
+
+        // When / Then
+        mockMvc.perform(get("/api/history").param("memberId", "1").param("after", "10").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].title").value("Book 1"))
+            .andExpect(jsonPath("$.nextCursor").value(9));
+    }
+
+    @Test
+    void overdueShouldListLoansPastTheirDueDate() throws Exception {
+        // Given
+        var loan = new OpenLoan(7L, 1L, 2L, LocalDateTime.now().minusDays(3));
+        when(overdueService.findOverdue(any(LocalDateTime.class))).thenReturn(List.of(loan));
+
+        // When / Then
+        mockMvc.perform(get("/api/loans/overdue"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(7))
+            .andExpect(jsonPath("$[0].memberId").value(1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.library.api;
+
+import com.example.library.model.QueuedHold;
+import com.example.library.service.ConflictException;
+import com.example.library.service.HoldService;
+import com.example.library.service.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class HoldControllerTest {
+
+    @Mock
+    private HoldService holdService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new HoldController(holdService))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+    }
+
+    @Test
+    void placeHoldShouldReturnCreatedHold() throws Exception {
+        // Given
+        when(holdService.placeHold(1L, 2L)).thenReturn(new QueuedHold(7L, 2L, 1L, LocalDateTime.now()));
+
+        // When / Then
+        mockMvc.perform(post("/api/members/1/holds/2"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(7))
+            .andExpect(jsonPath("$.bookId").value(2));
+    }
+
+    @Test
+    void placingHoldOnAvailableBookShouldReturnConflict() throws Exception {
+        // Given
+        when(holdService.placeHold(1L, 2L)).thenThrow(new ConflictException("Book is available"));
+
+        // When / Then
+        mockMvc.perform(post("/api/members/1/holds/2"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.detail").value("Book is available"));
+    }
+
+    @Test
+    void cancellingMissingHoldShouldReturnNotFound() throws Exception {
+        // Given
+        doThrow(new NotFoundException("No hold found")).when(holdService).cancelHold(1L, 2L);
+
+        // When / Then
+        mockMvc.perform(delete("/api/members/1/holds/2"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.library.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolMetricsTest {
+
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+
+    @Test
+    void snapshotShouldReportWaitTimesAndPoolOccupancy() {
+        // Given
+        IMetricsTracker tracker = metrics.create("sqlite-reader", new FixedPoolStats(3, 1, 2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(4));
+        tracker.recordConnectionTimeout();
+
+        // When
+        var snapshots = metrics.snapshot();
+
+        // Then
+        assertThat(snapshots).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.poolName()).isEqualTo("sqlite-reader");
+            assertThat(snapshot.active()).isEqualTo(3);
+            assertThat(snapshot.idle()).isEqualTo(1);
+            assertThat(snapshot.pendingThreads()).isEqualTo(2);
+            assertThat(snapshot.acquisitions()).isEqualTo(2);
+            assertThat(snapshot.timeouts()).isEqualTo(1);
+            assertThat(snapshot.averageWaitMillis()).isEqualTo(3.0);
+            assertThat(snapshot.maxWaitMillis()).isEqualTo(4.0);
+        });
+    }
+
+    @Test
+    void snapshotShouldReportZeroWaitBeforeFirstAcquisition() {
+        // Given
+        metrics.create("sqlite-writer", new FixedPoolStats(0, 1, 0));
+
+        // When
+        var snapshot = metrics.snapshot().getFirst();
+
+        // Then
+        assertThat(snapshot.acquisitions()).isZero();
+        assertThat(snapshot.averageWaitMillis()).isZero();
+    }
+
+    @Test
+    void bindToShouldPublishWaitTimesOfPoolsCreatedBeforeAndAfterBinding() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IMetricsTracker writer = metrics.create("sqlite-writer", new FixedPoolStats(1, 0, 1));
+
+        // When
+        metrics.bindTo(registry);
+        IMetricsTracker reader = metrics.create("sqlite-reader", new FixedPoolStats(0, 2, 0));
+        writer.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        reader.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        reader.recordConnectionTimeout();
+
+        // Then
+        Timer writerWait = registry.get("library.datasource.connection.wait").tag("pool", "sqlite-writer").timer();
+        assertThat(writerWait.count()).isEqualTo(1);
+        assertThat(writerWait.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5.0);
+        assertThat(registry.get("library.datasource.connection.wait").tag("pool", "sqlite-reader").timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get("library.datasource.connection.timeouts").tag("pool", "sqlite-reader")
+            .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("library.datasource.connections.pending").tag("pool", "sqlite-writer")
+            .gauge().value()).isEqualTo(1.0);
+    }
+
+    private static final class FixedPoolStats extends PoolStats {
+        private final int active;
+        private final int idle;
+        private final int pending;
+
+        private FixedPoolStats(int active, int idle, int pending) {
+            super(0);
+            this.active = active;
+            this.idle = idle;
+            this.pending = pending;
+        }
+
+        @Override
+        protected void update() {
+            activeConnections = active;
+            idleConnections = idle;
+            totalConnections = active + idle;
+            pendingThreads = pending;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.library.config;
+
+import com.example.library.model.Book;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LibraryRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHintsShouldCoverDataBindingAndChangelogs() {
+        // When
+        new LibraryRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertThat(RuntimeHintsPredicates.reflection().onType(Book.class)
+            .withMemberCategory(MemberCategory.ACCESS_DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Member.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(BorrowHistoryEntry.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/db.changelog-master.yaml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/changelog-v5.yaml")).accepts(hints);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.library.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTracerTest {
+
+    private final SqlTracer tracer = new SqlTracer(0.0, Duration.ofMillis(100), true, 16);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tracer.close();
+    }
+
+    @Test
+    void afterQueryShouldRecordLatencyPerStatementType() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracer.bindTo(registry);
+
+        // When
+        execute("SELECT * FROM books WHERE id = ?", true);
+        execute("  update books SET available = 0", true);
+        execute("INSERT INTO members (name) VALUES (?)", false);
+
+        // Then
+        Timer selects = registry.get("library.sql").tags("statement", "select", "success", "true").timer();
+        assertThat(selects.count()).isEqualTo(1);
+        assertThat(registry.get("library.sql").tags("statement", "update", "success", "true").timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get("library.sql").tags("statement", "insert", "success", "false").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void timersShouldBeRegisteredOnceWhenBound() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracer.bindTo(registry);
+        Timer selects = registry.get("library.sql").tags("statement", "select", "success", "true").timer();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            execute("SELECT 1", true);
+        }
+
+        // Then
+        assertThat(registry.getMeters()).hasSize(10);
+        assertThat(selects.count()).isEqualTo(100);
+    }
+
+    @Test
+    void statementTypeShouldClassifyByLeadingKeyword() {
+        assertThat(SqlTracer.statementType("WITH t AS (SELECT 1) SELECT * FROM t")).isEqualTo("select");
+        assertThat(SqlTracer.statementType("delete from borrow_records")).isEqualTo("delete");
+        assertThat(SqlTracer.statementType("PRAGMA user_version")).isEqualTo("other");
+        assertThat(SqlTracer.statementType("")).isEqualTo("other");
+    }
+
+    private void execute(String sql, boolean success) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setSuccess(success);
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        tracer.beforeQuery(execInfo, queries);
+        tracer.afterQuery(execInfo, queries);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.library.console;
+
+import com.example.library.console.BatchScriptRunner.BatchSummary;
+import com.example.library.console.BatchScriptRunner.Command;
+import com.example.library.console.BatchScriptRunner.Operation;
+import com.example.library.service.BookService;
+import com.example.library.service.BorrowService;
+import com.example.library.service.MemberService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchScriptRunnerTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private BorrowService borrowService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private BatchScriptRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new BatchScriptRunner(bookService, memberService, borrowService,
+            new TransactionTemplate(transactionManager), new ObjectMapper());
+    }
+
+    @Test
+    void parseShouldAcceptQuotedCommandsAndNdjson() {
+        // When
+        Operation command = runner.parse(1, "add-book \"The \"\"Pragmatic\"\" Programmer\" \"Hunt, Thomas\" 978-0135957059");
+        Operation json = runner.parse(2, "{\"op\": \"borrow\", \"memberId\": 7, \"bookId\": 42}");
+
+        // Then
+        assertThat(command.command()).isEqualTo(Command.ADD_BOOK);
+        assertThat(command.args()).containsExactly("The \"Pragmatic\" Programmer", "Hunt, Thomas", "978-0135957059");
+        assertThat(json.command()).isEqualTo(Command.BORROW);
+        assertThat(json.args()).containsExactly("7", "42");
+    }
+
+    @Test
+    void parseShouldRejectUnknownOperationsAndBadArguments() {
+        assertThatThrownBy(() -> runner.parse(1, "renew 1 2")).hasMessageContaining("Unknown operation");
+        assertThatThrownBy(() -> runner.parse(1, "borrow 1")).hasMessageContaining("borrow expects");
+        assertThatThrownBy(() -> runner.parse(1, "return one 2")).hasMessageContaining("Not an id");
+        assertThatThrownBy(() -> runner.parse(1, "{\"op\": ")).hasMessageContaining("Malformed JSON");
+    }
+
+    @Test
+    void runShouldReplayFailedTransactionOneOperationAtATime() throws Exception {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        doThrow(new IllegalStateException("Book is not available")).when(borrowService).borrowBook(1L, 2L);
+        Path script = Files.writeString(tempDir.resolve("script.txt"), """
+            # first transaction
+            borrow 1 1
+            borrow 1 2
+
+            register "Jane Doe" jane@example.com
+            bogus
+            """);
+
+        // When
+        BatchSummary summary = runner.run(script, 1, 2);
+
+        // Then
+        assertThat(summary.succeeded()).isEqualTo(2);
+        assertThat(summary.failed()).isEqualTo(2);
+        assertThat(summary.failures())
+            .extracting("line", "error")
+            .containsExactlyInAnyOrder(
+                tuple(6, "Unknown operation: bogus"),
+                tuple(3, "Book is not available"));
+        // borrow 1 1 ran once in the failed transaction and again on its own
+        verify(borrowService, times(2)).borrowBook(1L, 1L);
+        verify(memberService).registerMember("Jane Doe", "jane@example.com", null);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void runShouldRejectNonPositiveSettings() throws Exception {
+        // Given
+        Path script = Files.writeString(tempDir.resolve("empty.txt"), "");
+
+        // Then
+        assertThatThrownBy(() -> runner.run(script, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> runner.run(script, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(runner.run(script, 2, 10).operations()).isZero();
+    }
+}
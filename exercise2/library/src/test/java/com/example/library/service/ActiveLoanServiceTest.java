@@ -0,0 +1,81 @@
+package com.example.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveLoanServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ActiveLoanService activeLoanService;
+
+    @BeforeEach
+    void setUp() {
+        activeLoanService = new ActiveLoanService(jdbcTemplate);
+        ReflectionTestUtils.setField(activeLoanService, "maxLoansPerMember", 3);
+    }
+
+    @Test
+    void reserveShouldRecordLoansUpToTheLimit() {
+        // Given
+        activeLoanService.reserve(1L, 10L);
+        activeLoanService.reserve(1L, List.of(11L, 12L));
+
+        // When/Then
+        assertThat(activeLoanService.getActiveLoans(1L)).containsExactly(10L, 11L, 12L);
+        assertThat(activeLoanService.remainingLoans(1L)).isZero();
+        assertThatThrownBy(() -> activeLoanService.reserve(1L, 13L))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Member has reached the limit of 3 loans");
+        assertThat(activeLoanService.getActiveLoans(1L)).hasSize(3);
+    }
+
+    @Test
+    void batchReserveShouldTakeNoSlotWhenTheBooksDoNotAllFit() {
+        // Given
+        activeLoanService.reserve(1L, 10L);
+
+        // When/Then
+        assertThatThrownBy(() -> activeLoanService.reserve(1L, List.of(11L, 12L, 13L)))
+            .isInstanceOf(ConflictException.class);
+        assertThat(activeLoanService.getActiveLoans(1L)).containsExactly(10L);
+    }
+
+    @Test
+    void releaseShouldFreeOneSlotPerReturnedCopy() {
+        // Given - two copies of the same book
+        activeLoanService.reserve(1L, List.of(10L, 10L, 11L));
+
+        // When
+        activeLoanService.releaseAfterCommit(1L, List.of(10L));
+
+        // Then
+        assertThat(activeLoanService.getActiveLoans(1L)).containsExactly(10L, 11L);
+        assertThat(activeLoanService.remainingLoans(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void addShouldIgnoreTheLimitForHoldHandoffs() {
+        // Given
+        activeLoanService.reserve(1L, List.of(10L, 11L, 12L));
+
+        // When
+        activeLoanService.add(1L, 13L);
+
+        // Then
+        assertThat(activeLoanService.getActiveLoans(1L)).hasSize(4);
+        assertThat(activeLoanService.remainingLoans(1L)).isZero();
+        assertThat(activeLoanService.getActiveLoans(2L)).isEmpty();
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.library.service;
 
 import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.model.CursorPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,11 +29,20 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private CacheManager cacheManager;
+
     private BookService bookService;
 
     @BeforeEach
     void setUp() {
-        bookService = new BookService(bookRepository);
+        bookService = new BookService(bookRepository, inventoryService, catalogService, cacheManager);
     }
 
     @Test
@@ -51,51 +69,59 @@ class BookServiceTest {
             .extracting("title", "author", "isbn", "available")
             .containsExactly(title, author, isbn, true);
         verify(bookRepository).save(any(Book.class));
+        verify(catalogService).onBookAdded(expectedBook);
     }
 
     @Test
     void getBookByIsbnShouldReturnBookWhenExists() {
         // Given
         String isbn = "1234567890";
-        Book expectedBook = Book.builder()
-            .isbn(isbn)
-            .title("Test Book")
-            .author("Test Author")
-            .available(true)
-            .build();
-        when(bookRepository.findByIsbn(isbn)).thenReturn(Optional.of(expectedBook));
+        BookSummary expectedBook = new BookSummary(1L, isbn, "Test Book", "Test Author", 1, 1);
+        when(catalogService.findByIsbn(isbn)).thenReturn(Optional.of(expectedBook));
 
         // When
-        Optional<Book> actualBook = bookService.getBookByIsbn(isbn);
+        Optional<BookSummary> actualBook = bookService.getBookByIsbn(isbn);
 
         // Then
-        assertThat(actualBook).isPresent();
-        assertThat(actualBook.get())
-            .extracting("isbn", "title", "author", "available")
-            .containsExactly(isbn, "Test Book", "Test Author", true);
+        assertThat(actualBook).contains(expectedBook);
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
     void getBookByIsbnShouldReturnEmptyWhenNotExists() {
         // Given
         String isbn = "1234567890";
-        when(bookRepository.findByIsbn(isbn)).thenReturn(Optional.empty());
+        when(catalogService.findByIsbn(isbn)).thenReturn(Optional.empty());
 
         // When
-        Optional<Book> actualBook = bookService.getBookByIsbn(isbn);
+        Optional<BookSummary> actualBook = bookService.getBookByIsbn(isbn);
 
         // Then
         assertThat(actualBook).isEmpty();
     }
 
     @Test
-    void searchBooksShouldReturnMatchingBooks() {
+    void getBookPageShouldReturnLastPageWithoutCursor() {
+        // Given
+        when(bookRepository.findSummaryPage(null, Limit.of(BookService.DEFAULT_LIST_PAGE_SIZE + 1))).thenReturn(List.of(
+            new BookSummary(1L, "123", "Clean Code", "Robert C. Martin", 1, 2)));
+
+        // When
+        CursorPage<BookSummary> page = bookService.getBookPage(null, BookService.DEFAULT_LIST_PAGE_SIZE);
+
+        // Then
+        assertThat(page.items()).extracting(BookSummary::title).containsExactly("Clean Code");
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void searchBooksShouldUseFullTextIndexForLongerTerms() {
         // Given
         String query = "Test";        List<Book> expectedBooks = java.util.Arrays.asList(
             Book.builder().title("Test Book 1").author("Author 1").build(),
             Book.builder().title("Book 2").author("Test Author 2").build()
         );
-        when(bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(query, query))
+        when(bookRepository.searchFullText("\"Test\"", BookService.DEFAULT_SEARCH_PAGE_SIZE, 0))
             .thenReturn(expectedBooks);
 
         // When
@@ -109,24 +135,91 @@ class BookServiceTest {
     }
 
     @Test
-    void updateBookAvailabilityShouldUpdateWhenBookExists() {
+    void searchBooksShouldQuoteTermAsPhraseAndApplyPaging() {
+        // Given
+        when(bookRepository.searchFullText("\"say \"\"hi\"\"\"", 10, 20)).thenReturn(List.of());
+
+        // When
+        List<Book> actualBooks = bookService.searchBooks("  say \"hi\" ", 2, 10);
+
+        // Then
+        assertThat(actualBooks).isEmpty();
+        verify(bookRepository).searchFullText("\"say \"\"hi\"\"\"", 10, 20);
+    }
+
+    @Test
+    void searchBooksShouldFallBackToSubstringScanForShortTerms() {
+        // Given
+        List<Book> expectedBooks = List.of(Book.builder().title("Go in Action").author("Author").build());
+        when(bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(
+            "Go", "Go", PageRequest.of(0, BookService.DEFAULT_SEARCH_PAGE_SIZE)))
+            .thenReturn(expectedBooks);
+
+        // When
+        List<Book> actualBooks = bookService.searchBooks("Go");
+
+        // Then
+        assertThat(actualBooks)
+            .extracting("title")
+            .containsExactly("Go in Action");
+        verify(bookRepository, never()).searchFullText(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void updateBookAvailabilityShouldIssueSingleUpdateAndDropTheCounter() {
         // Given
         Long bookId = 1L;
-        Book existingBook = Book.builder()
-            .id(bookId)
-            .title("Test Book")
-            .author("Test Author")
-            .isbn("1234567890")
-            .available(true)
-            .build();
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.updateAvailability(bookId, false)).thenReturn(1);
 
         // When
-        bookService.updateBookAvailability(bookId, false);
+        boolean updated = bookService.updateBookAvailability(bookId, false);
 
         // Then
-        verify(bookRepository).findById(bookId);
-        verify(bookRepository).save(any(Book.class));
+        assertThat(updated).isTrue();
+        verify(bookRepository).updateAvailability(bookId, false);
+        verify(bookRepository, never()).findById(bookId);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(inventoryService).forget(bookId);
+    }
+
+    @Test
+    void markBorrowedShouldRejectSoldOutTitleWithoutQueryingDatabase() {
+        // Given
+        when(inventoryService.tryReserve(1L)).thenReturn(false);
+
+        // When
+        boolean borrowed = bookService.markBorrowed(1L);
+
+        // Then
+        assertThat(borrowed).isFalse();
+        verify(bookRepository, never()).claimCopy(anyLong());
+    }
+
+    @Test
+    void markBorrowedShouldForgetTheCounterWhenDatabaseHasNoCopyLeft() {
+        // Given
+        when(inventoryService.tryReserve(1L)).thenReturn(true);
+        when(bookRepository.claimCopy(1L)).thenReturn(0);
+
+        // When
+        boolean borrowed = bookService.markBorrowed(1L);
+
+        // Then
+        assertThat(borrowed).isFalse();
+        verify(inventoryService).forget(1L);
+        verify(inventoryService, never()).correct(anyLong(), anyInt());
+    }
+
+    @Test
+    void markReturnedShouldPutCopyBackOnInventory() {
+        // Given
+        when(bookRepository.releaseCopy(1L)).thenReturn(1);
+
+        // When
+        boolean returned = bookService.markReturned(1L);
+
+        // Then
+        assertThat(returned).isTrue();
+        verify(inventoryService).releaseAfterCommit(1L);
     }
 }
@@ -1,21 +1,45 @@
 package com.example.library.service;
 
+import com.example.library.model.BatchItemResult;
+import com.example.library.model.BatchItemResult.Status;
+import com.example.library.model.BatchMode;
 import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.model.BorrowHistoryEntry;
+import com.example.library.model.BorrowHistoryFilter;
 import com.example.library.model.BorrowRecord;
+import com.example.library.model.CirculationEventType;
+import com.example.library.model.CursorPage;
 import com.example.library.model.Member;
+import com.example.library.model.OpenLoan;
+import com.example.library.model.QueuedHold;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,11 +55,27 @@ class BorrowServiceTest {
     @Mock
     private MemberService memberService;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OverdueService overdueService;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private CirculationLog circulationLog;
+
+    @Mock
+    private ActiveLoanService activeLoanService;
+
     private BorrowService borrowService;
 
     @BeforeEach
     void setUp() {
-        borrowService = new BorrowService(borrowRecordRepository, bookService, memberService);
+        borrowService = new BorrowService(borrowRecordRepository, bookService, memberService, jdbcTemplate, overdueService, holdService, circulationLog, activeLoanService);
+        ReflectionTestUtils.setField(borrowService, "loanPeriodDays", 14);
     }
 
     @Test
@@ -45,15 +85,11 @@ class BorrowServiceTest {
         Long bookId = 1L;
         Member member = Member.builder().id(memberId).name("John").build();
         Book book = Book.builder().id(bookId).title("Test Book").available(true).build();
-        BorrowRecord expectedRecord = BorrowRecord.builder()
-            .member(member)
-            .book(book)
-            .borrowDate(LocalDateTime.now())
-            .build();
 
         when(memberService.getMemberById(memberId)).thenReturn(Optional.of(member));
-        when(bookService.getBookById(bookId)).thenReturn(Optional.of(book));
-        when(borrowRecordRepository.save(any(BorrowRecord.class))).thenReturn(expectedRecord);
+        when(bookService.markBorrowed(bookId)).thenReturn(true);
+        when(bookService.getBookReference(bookId)).thenReturn(book);
+        when(borrowRecordRepository.save(any(BorrowRecord.class))).thenAnswer(i -> i.getArgument(0));
 
         // When
         BorrowRecord actualRecord = borrowService.borrowBook(memberId, bookId);
@@ -61,9 +97,13 @@ class BorrowServiceTest {
         // Then
         assertThat(actualRecord)
             .isNotNull()
-            .extracting("member", "book", "borrowDate")
+            .extracting("member", "book", "borrowDate", "dueDate")
             .doesNotContainNull();
-        verify(bookService).updateBookAvailability(bookId, false);
+        assertThat(actualRecord.getDueDate()).isEqualTo(actualRecord.getBorrowDate().plusDays(14));
+        verify(overdueService).track(any(OpenLoan.class));
+        verify(circulationLog).append(eq(CirculationEventType.BORROWED), eq(memberId), eq(bookId), any(LocalDateTime.class));
+        verify(bookService).markBorrowed(bookId);
+        verify(bookService, never()).getBookSummary(anyLong());
     }
 
     @Test
@@ -75,8 +115,9 @@ class BorrowServiceTest {
 
         // When/Then
         assertThatThrownBy(() -> borrowService.borrowBook(memberId, bookId))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(NotFoundException.class)
             .hasMessage("Member not found");
+        verify(bookService, never()).markBorrowed(anyLong());
     }
 
     @Test
@@ -86,11 +127,12 @@ class BorrowServiceTest {
         Long bookId = 1L;
         Member member = Member.builder().id(memberId).name("John").build();
         when(memberService.getMemberById(memberId)).thenReturn(Optional.of(member));
-        when(bookService.getBookById(bookId)).thenReturn(Optional.empty());
+        when(bookService.markBorrowed(bookId)).thenReturn(false);
+        when(bookService.getBookSummary(bookId)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> borrowService.borrowBook(memberId, bookId))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(NotFoundException.class)
             .hasMessage("Book not found");
     }
 
@@ -100,40 +142,79 @@ class BorrowServiceTest {
         Long memberId = 1L;
         Long bookId = 1L;
         Member member = Member.builder().id(memberId).name("John").build();
-        Book book = Book.builder().id(bookId).title("Test Book").available(false).build();
+        BookSummary book = new BookSummary(bookId, "123", "Test Book", "Author", 0, 1);
         when(memberService.getMemberById(memberId)).thenReturn(Optional.of(member));
-        when(bookService.getBookById(bookId)).thenReturn(Optional.of(book));
+        when(bookService.markBorrowed(bookId)).thenReturn(false);
+        when(bookService.getBookSummary(bookId)).thenReturn(Optional.of(book));
 
         // When/Then
         assertThatThrownBy(() -> borrowService.borrowBook(memberId, bookId))
-            .isInstanceOf(IllegalStateException.class)
+            .isInstanceOf(ConflictException.class)
             .hasMessage("Book is not available");
+        verify(borrowRecordRepository, never()).save(any(BorrowRecord.class));
     }
 
     @Test
-    void returnBookShouldUpdateRecordAndBookAvailabilityWhenBorrowExists() {
+    void returnBookShouldCloseRecordAndReleaseBookWhenBorrowExists() {
         // Given
         Long memberId = 1L;
         Long bookId = 1L;
-        Member member = Member.builder().id(memberId).name("John").build();
-        Book book = Book.builder().id(bookId).title("Test Book").build();
-        BorrowRecord existingRecord = BorrowRecord.builder()
-            .id(1L)
-            .member(member)
-            .book(book)
-            .borrowDate(LocalDateTime.now().minusDays(1))
-            .build();
-
-        when(borrowRecordRepository.findByMember_IdAndBook_IdAndReturnDateIsNull(memberId, bookId))
-            .thenReturn(Optional.of(existingRecord));
+        when(borrowRecordRepository.findOpenLoans(memberId, List.of(bookId)))
+            .thenReturn(List.of(new OpenLoan(5L, memberId, bookId, LocalDateTime.now())));
+        when(borrowRecordRepository.markReturned(eq(List.of(5L)), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        borrowService.returnBook(memberId, bookId);
+
+        // Then
+        verify(borrowRecordRepository).markReturned(eq(List.of(5L)), any(LocalDateTime.class));
+        verify(bookService).markReturned(bookId);
+        verify(overdueService).untrack(List.of(5L));
+    }
+
+    @Test
+    void returnBookShouldLendTheCopyToTheFirstHolderInsteadOfShelvingIt() {
+        // Given
+        Long memberId = 1L;
+        Long bookId = 10L;
+        var hold = new QueuedHold(3L, bookId, 2L, LocalDateTime.now().minusDays(1));
+        when(borrowRecordRepository.findOpenLoans(memberId, List.of(bookId)))
+            .thenReturn(List.of(new OpenLoan(5L, memberId, bookId, LocalDateTime.now())));
+        when(borrowRecordRepository.markReturned(eq(List.of(5L)), any(LocalDateTime.class))).thenReturn(1);
+        when(holdService.claimNext(bookId)).thenReturn(Optional.of(hold));
+        when(memberService.getMemberReference(2L)).thenReturn(Member.builder().id(2L).build());
+        when(bookService.getBookReference(bookId)).thenReturn(Book.builder().id(bookId).build());
         when(borrowRecordRepository.save(any(BorrowRecord.class))).thenAnswer(i -> i.getArgument(0));
 
         // When
         borrowService.returnBook(memberId, bookId);
 
         // Then
-        verify(borrowRecordRepository).save(any(BorrowRecord.class));
-        verify(bookService).updateBookAvailability(bookId, true);
+        verify(borrowRecordRepository).save(argThat(record ->
+            record.getMember().getId().equals(2L) && record.getBook().getId().equals(bookId)
+                && record.getDueDate() != null));
+        verify(bookService, never()).markReturned(anyLong());
+    }
+
+    @Test
+    void returnBookShouldCloseOnlyTheEarliestLoanWhenTheMemberHasTwoCopies() {
+        // Given
+        Long memberId = 1L;
+        Long bookId = 10L;
+        LocalDateTime due = LocalDateTime.now().plusDays(7);
+        when(borrowRecordRepository.findOpenLoans(memberId, List.of(bookId)))
+            .thenReturn(List.of(new OpenLoan(8L, memberId, bookId, due), new OpenLoan(4L, memberId, bookId, due)));
+        when(borrowRecordRepository.markReturned(eq(List.of(4L)), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        borrowService.returnBook(memberId, bookId);
+
+        // Then
+        verify(borrowRecordRepository).markReturned(eq(List.of(4L)), any(LocalDateTime.class));
+        verify(overdueService).untrack(List.of(4L));
+        verify(bookService).markReturned(bookId);
+        verify(activeLoanService).releaseAfterCommit(memberId, List.of(bookId));
+        verify(circulationLog).append(eq(CirculationEventType.RETURNED), eq(memberId), eq(bookId), any(LocalDateTime.class));
     }
 
     @Test
@@ -141,39 +222,176 @@ class BorrowServiceTest {
         // Given
         Long memberId = 1L;
         Long bookId = 1L;
-        when(borrowRecordRepository.findByMember_IdAndBook_IdAndReturnDateIsNull(memberId, bookId))
-            .thenReturn(Optional.empty());
+        when(borrowRecordRepository.findOpenLoans(memberId, List.of(bookId))).thenReturn(List.of());
 
         // When/Then
         assertThatThrownBy(() -> borrowService.returnBook(memberId, bookId))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(NotFoundException.class)
             .hasMessage("No active borrow record found");
+        verify(borrowRecordRepository, never()).markReturned(anyCollection(), any(LocalDateTime.class));
+        verify(bookService, never()).markReturned(anyLong());
+        verify(holdService, never()).claimNext(anyLong());
     }
 
     @Test
-    void getBorrowHistoryShouldReturnAllRecordsOrderedByBorrowDate() {
+    void getBorrowHistoryShouldReturnPageWithCursorWhenMoreRowsExist() {
         // Given
-        List<BorrowRecord> expectedRecords = List.of(
-            BorrowRecord.builder()
-                .borrowDate(LocalDateTime.now())
-                .member(Member.builder().name("John").build())
-                .book(Book.builder().title("Book 1").build())
-                .build(),
-            BorrowRecord.builder()
-                .borrowDate(LocalDateTime.now().minusDays(1))
-                .member(Member.builder().name("Jane").build())
-                .book(Book.builder().title("Book 2").build())
-                .build()
+        LocalDateTime now = LocalDateTime.now();
+        List<BorrowHistoryEntry> rows = List.of(
+            new BorrowHistoryEntry(3L, 1L, "John", 10L, "111", "Book 1", now, null),
+            new BorrowHistoryEntry(2L, 2L, "Jane", 11L, "222", "Book 2", now.minusDays(1), now),
+            new BorrowHistoryEntry(1L, 1L, "John", 12L, "333", "Book 3", now.minusDays(2), now)
         );
-        when(borrowRecordRepository.findAllByOrderByBorrowDateDesc()).thenReturn(expectedRecords);
+        when(borrowRecordRepository.findHistoryPage(null, null, null, null, null, Limit.of(3))).thenReturn(rows);
 
         // When
-        List<BorrowRecord> actualRecords = borrowService.getBorrowHistory();
+        CursorPage<BorrowHistoryEntry> page = borrowService.getBorrowHistory(BorrowHistoryFilter.all(), null, 2);
 
         // Then
-        assertThat(actualRecords)
-            .hasSize(2)
-            .extracting(record -> record.getBook().getTitle())
+        assertThat(page.items())
+            .extracting(BorrowHistoryEntry::title)
             .containsExactly("Book 1", "Book 2");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.nextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    void getBorrowHistoryShouldPassFilterAndCursorAndEndOnLastPage() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        var filter = new BorrowHistoryFilter(1L, 10L, from, to);
+        List<BorrowHistoryEntry> rows = List.of(
+            new BorrowHistoryEntry(5L, 1L, "John", 10L, "111", "Book 1", from.plusDays(3), null)
+        );
+        when(borrowRecordRepository.findHistoryPage(1L, 10L, from, to, 7L, Limit.of(21))).thenReturn(rows);
+
+        // When
+        CursorPage<BorrowHistoryEntry> page = borrowService.getBorrowHistory(filter, 7L, 20);
+
+        // Then
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void forEachHistoryEntryShouldVisitEveryStreamedEntry() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        when(borrowRecordRepository.streamHistory(1L, null, null, null)).thenReturn(Stream.of(
+            new BorrowHistoryEntry(2L, 1L, "John", 10L, "111", "Book 1", now, null),
+            new BorrowHistoryEntry(1L, 1L, "John", 11L, "222", "Book 2", now.minusDays(1), now)
+        ));
+        List<String> visited = new ArrayList<>();
+
+        // When
+        long count = borrowService.forEachHistoryEntry(BorrowHistoryFilter.forMember(1L), entry -> visited.add(entry.isbn()));
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(visited).containsExactly("111", "222");
+    }
+
+    @Test
+    void borrowBooksInPartialModeShouldBorrowAvailableBooksAndReportTheRest() {
+        // Given
+        Long memberId = 1L;
+        when(memberService.getMemberById(memberId)).thenReturn(Optional.of(Member.builder().id(memberId).build()));
+        when(activeLoanService.remainingLoans(memberId)).thenReturn(10);
+        when(bookService.getBooksById(Set.of(10L, 11L, 12L))).thenReturn(Map.of(
+            10L, Book.builder().id(10L).availableCopies(2).build(),
+            11L, Book.builder().id(11L).availableCopies(0).build()));
+        when(bookService.markBorrowed(List.of(10L))).thenReturn(Set.of(10L));
+
+        // When
+        List<BatchItemResult> results = borrowService.borrowBooks(memberId, List.of(10L, 11L, 12L, 10L), BatchMode.PARTIAL);
+
+        // Then
+        assertThat(results).containsExactly(
+            new BatchItemResult(10L, Status.BORROWED),
+            new BatchItemResult(11L, Status.NOT_AVAILABLE),
+            new BatchItemResult(12L, Status.NOT_FOUND));
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(Set.of(10L)), eq(1), any());
+        verify(borrowRecordRepository).findOpenLoans(memberId, Set.of(10L));
+        verify(activeLoanService).reserve(memberId, Set.of(10L));
+    }
+
+    @Test
+    void borrowBooksShouldStopAtTheMembersLoanLimit() {
+        // Given
+        Long memberId = 1L;
+        when(memberService.getMemberById(memberId)).thenReturn(Optional.of(Member.builder().id(memberId).build()));
+        when(activeLoanService.remainingLoans(memberId)).thenReturn(1);
+        when(bookService.getBooksById(Set.of(10L, 11L))).thenReturn(Map.of(
+            10L, Book.builder().id(10L).availableCopies(1).build(),
+            11L, Book.builder().id(11L).availableCopies(1).build()));
+        when(bookService.markBorrowed(List.of(10L))).thenReturn(Set.of(10L));
+
+        // When
+        List<BatchItemResult> results = borrowService.borrowBooks(memberId, List.of(10L, 11L), BatchMode.PARTIAL);
+
+        // Then
+        assertThat(results).containsExactly(
+            new BatchItemResult(10L, Status.BORROWED),
+            new BatchItemResult(11L, Status.LIMIT_REACHED));
+    }
+
+    @Test
+    void borrowBookShouldThrowExceptionWhenMemberIsAtTheLoanLimit() {
+        // Given
+        Long memberId = 1L;
+        Long bookId = 1L;
+        when(memberService.getMemberById(memberId)).thenReturn(Optional.of(Member.builder().id(memberId).build()));
+        doThrow(new ConflictException("Member has reached the limit of 10 loans"))
+            .when(activeLoanService).reserve(memberId, bookId);
+
+        // When/Then
+        assertThatThrownBy(() -> borrowService.borrowBook(memberId, bookId))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Member has reached the limit of 10 loans");
+        verify(bookService, never()).markBorrowed(anyLong());
+    }
+
+    @Test
+    void borrowBooksInAllOrNothingModeShouldApplyNothingWhenAnyBookFails() {
+        // Given
+        Long memberId = 1L;
+        when(memberService.getMemberById(memberId)).thenReturn(Optional.of(Member.builder().id(memberId).build()));
+        when(activeLoanService.remainingLoans(memberId)).thenReturn(10);
+        when(bookService.getBooksById(Set.of(10L, 12L))).thenReturn(Map.of(
+            10L, Book.builder().id(10L).availableCopies(1).build()));
+
+        // When
+        List<BatchItemResult> results = borrowService.borrowBooks(memberId, List.of(10L, 12L), BatchMode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(results).containsExactly(
+            new BatchItemResult(10L, Status.SKIPPED),
+            new BatchItemResult(12L, Status.NOT_FOUND));
+        verify(bookService, never()).markBorrowed(anyCollection());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    void returnBooksShouldCloseActiveLoansWithOneUpdate() {
+        // Given
+        Long memberId = 1L;
+        when(borrowRecordRepository.findOpenLoans(memberId, Set.of(10L, 11L)))
+            .thenReturn(List.of(new OpenLoan(7L, memberId, 10L, LocalDateTime.now())));
+        when(borrowRecordRepository.markReturned(eq(List.of(7L)), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        List<BatchItemResult> results = borrowService.returnBooks(memberId, List.of(10L, 11L), BatchMode.PARTIAL);
+
+        // Then
+        assertThat(results).containsExactly(
+            new BatchItemResult(10L, Status.RETURNED),
+            new BatchItemResult(11L, Status.NOT_BORROWED));
+        verify(borrowRecordRepository).markReturned(eq(List.of(7L)), any(LocalDateTime.class));
+        verify(bookService).markReturned(List.of(10L));
+        verify(overdueService).untrack(List.of(7L));
+        verify(activeLoanService).releaseAfterCommit(memberId, Set.of(10L));
+        verify(circulationLog).append(eq(CirculationEventType.RETURNED), eq(memberId), eq(Set.of(10L)), any(LocalDateTime.class));
     }
 }
@@ -0,0 +1,149 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        catalogService = new CatalogService(jdbcTemplate, inventoryService, transactionManager);
+    }
+
+    @Test
+    void addedBooksShouldBeFoundByIdAndIsbnWithoutTheDatabase() {
+        // Given
+        catalogService.onBookAdded(book(1L, "111", "Dune", "Frank Herbert", "Science Fiction", 2));
+        catalogService.onBookAdded(book(2L, "222", "Emma", "Jane Austen", null, 1));
+        when(inventoryService.getAvailableCopies(2L)).thenReturn(1);
+        when(inventoryService.getAvailableCopies(1L)).thenReturn(0);
+
+        // When
+        var byId = catalogService.findById(2L);
+        var byIsbn = catalogService.findByIsbn("111");
+
+        // Then
+        assertThat(byId).contains(new BookSummary(2L, "222", "Emma", "Jane Austen", 1, 1));
+        assertThat(byIsbn).contains(new BookSummary(1L, "111", "Dune", "Frank Herbert", 0, 2));
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void publishedSnapshotShouldNotSeeLaterChanges() {
+        // Given
+        catalogService.onBookAdded(book(1L, "111", "Dune", "Frank Herbert", "Science Fiction", 2));
+        CatalogSnapshot before = catalogService.snapshot();
+
+        // When
+        catalogService.onBookAdded(book(2L, "222", "Emma", "Jane Austen", null, 1));
+        catalogService.onCopiesAdded(1L, 3);
+
+        // Then
+        assertThat(before.size()).isEqualTo(1);
+        assertThat(before.indexOfIsbn("222")).isNegative();
+        assertThat(before.totalCopies(0)).isEqualTo(2);
+        CatalogSnapshot after = catalogService.snapshot();
+        assertThat(after.indexOfIsbn("222")).isEqualTo(1);
+        assertThat(after.totalCopies(after.indexOf(1L))).isEqualTo(5);
+        assertThat(after.genre(1)).isNull();
+    }
+
+    @Test
+    void snapshotShouldKeepIdsSortedAndSurviveGrowth() {
+        // Given
+        for (long id = 1; id <= 1000; id += 2) {
+            catalogService.onBookAdded(book(id, "isbn-" + id, "Title " + id, "Author " + id % 7, "Genre", 1));
+        }
+
+        // When
+        catalogService.onBookAdded(book(500L, "isbn-500", "Late", "Author 3", "Genre", 1));
+        catalogService.onBookAdded(book(1L, "isbn-1", "Duplicate", "Author 1", "Genre", 1));
+
+        // Then
+        CatalogSnapshot catalog = catalogService.snapshot();
+        assertThat(catalog.size()).isEqualTo(501);
+        assertThat(catalog.id(catalog.indexOf(500L))).isEqualTo(500L);
+        assertThat(catalog.id(catalog.indexOf(501L))).isEqualTo(501L);
+        assertThat(catalog.title(catalog.indexOfIsbn("isbn-1"))).isEqualTo("Title 1");
+        assertThat(catalog.title(catalog.indexOfIsbn("isbn-500"))).isEqualTo("Late");
+        assertThat(catalog.author(catalog.indexOfIsbn("isbn-999"))).isEqualTo("Author 5");
+        assertThat(catalog.indexOf(2L)).isNegative();
+    }
+
+    @Test
+    void unknownTitleShouldBeReadFromTheDatabaseOnceAndKept() throws Exception {
+        // Given
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(9L);
+        when(row.getString(2)).thenReturn("999");
+        when(row.getString(3)).thenReturn("Imported");
+        when(row.getInt(6)).thenReturn(4);
+        doAnswer(invocation -> List.of(invocation.<RowMapper<Book>>getArgument(1).mapRow(row, 0)))
+            .when(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(9L));
+        when(inventoryService.getAvailableCopies(9L)).thenReturn(-1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(9L))).thenReturn(3);
+
+        // When
+        var found = catalogService.findById(9L);
+
+        // Then
+        assertThat(found).contains(new BookSummary(9L, "999", "Imported", null, 3, 4));
+        assertThat(catalogService.snapshot().indexOfIsbn("999")).isZero();
+        verify(transactionManager, times(2)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void missingTitleShouldBeEmptyWithoutPublishingASnapshot() {
+        // Given
+        catalogService.onBookAdded(book(1L, "111", "Dune", "Frank Herbert", "Science Fiction", 2));
+        CatalogSnapshot before = catalogService.snapshot();
+
+        // When
+        var found = catalogService.findByIsbn("nope");
+
+        // Then
+        assertThat(found).isEmpty();
+        assertThat(catalogService.snapshot()).isSameAs(before);
+    }
+
+    private static Book book(long id, String isbn, String title, String author, String genre, int copies) {
+        return Book.builder().id(id).isbn(isbn).title(title).author(author).genre(genre)
+            .available(true).totalCopies(copies).availableCopies(copies).build();
+    }
+}
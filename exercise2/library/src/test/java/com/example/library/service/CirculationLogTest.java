@@ -0,0 +1,44 @@
+package com.example.library.service;
+
+import com.example.library.model.CirculationEventType;
+import com.example.library.service.CirculationLog.Snapshot;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CirculationLogTest {
+
+    @Test
+    void snapshotShouldSurviveEncodingAndDecoding() {
+        // Given
+        Snapshot snapshot = new Snapshot(42L, Map.of(10L, List.of(2L, 1L), 11L, List.of(3L)));
+
+        // When
+        Snapshot decoded = Snapshot.decode(42L, snapshot.encode());
+
+        // Then
+        assertThat(decoded.lastEventId()).isEqualTo(42L);
+        assertThat(decoded.loanCount()).isEqualTo(3);
+        assertThat(decoded.loans()).containsOnly(
+            Map.entry(10L, List.of(1L, 2L)),
+            Map.entry(11L, List.of(3L)));
+    }
+
+    @Test
+    void replayingShouldTrackEveryCopyAndIgnoreHolds() {
+        // Given
+        List<Long> borrowers = new ArrayList<>();
+
+        // When
+        CirculationLog.apply(borrowers, CirculationEventType.BORROWED, 1L);
+        CirculationLog.apply(borrowers, CirculationEventType.BORROWED, 1L);
+        CirculationLog.apply(borrowers, CirculationEventType.HELD, 2L);
+        CirculationLog.apply(borrowers, CirculationEventType.RETURNED, 1L);
+
+        // Then - the member still has the second copy
+        assertThat(borrowers).containsExactly(1L);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookSummary;
+import com.example.library.model.Hold;
+import com.example.library.model.Member;
+import com.example.library.model.QueuedHold;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private CirculationLog circulationLog;
+
+    private HoldService holdService;
+
+    @BeforeEach
+    void setUp() {
+        holdService = new HoldService(holdRepository, bookService, memberService, circulationLog);
+    }
+
+    @Test
+    void claimNextShouldServeHoldsInTheOrderTheyWerePlaced() {
+        // Given
+        LocalDateTime placedAt = LocalDateTime.now();
+        when(holdRepository.findAllQueued()).thenReturn(List.of(
+            new QueuedHold(1L, 10L, 1L, placedAt),
+            new QueuedHold(2L, 10L, 2L, placedAt),
+            new QueuedHold(3L, 11L, 3L, placedAt)));
+        when(holdRepository.deleteHold(anyLong())).thenReturn(1);
+        holdService.loadQueues();
+
+        // When
+        Optional<QueuedHold> first = holdService.claimNext(10L);
+        Optional<QueuedHold> second = holdService.claimNext(10L);
+        Optional<QueuedHold> none = holdService.claimNext(10L);
+
+        // Then
+        assertThat(first).map(QueuedHold::memberId).contains(1L);
+        assertThat(second).map(QueuedHold::memberId).contains(2L);
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void claimNextShouldSkipHoldsCancelledSinceTheyWereQueued() {
+        // Given
+        LocalDateTime placedAt = LocalDateTime.now();
+        when(holdRepository.findAllQueued()).thenReturn(List.of(
+            new QueuedHold(1L, 10L, 1L, placedAt),
+            new QueuedHold(2L, 10L, 2L, placedAt)));
+        when(holdRepository.deleteHold(1L)).thenReturn(0);
+        when(holdRepository.deleteHold(2L)).thenReturn(1);
+        holdService.loadQueues();
+
+        // When
+        Optional<QueuedHold> next = holdService.claimNext(10L);
+
+        // Then
+        assertThat(next).map(QueuedHold::id).contains(2L);
+    }
+
+    @Test
+    void claimNextShouldNotTouchTheDatabaseWhenNobodyIsWaiting() {
+        // When
+        Optional<QueuedHold> next = holdService.claimNext(10L);
+
+        // Then
+        assertThat(next).isEmpty();
+        verify(holdRepository, never()).deleteHold(anyLong());
+    }
+
+    @Test
+    void placeHoldShouldQueueTheMemberBehindEarlierHolds() {
+        // Given
+        Member member = Member.builder().id(2L).build();
+        Book book = Book.builder().id(10L).availableCopies(0).build();
+        when(memberService.getMemberById(2L)).thenReturn(Optional.of(member));
+        when(bookService.getBookSummary(10L)).thenReturn(Optional.of(summary(10L, 0)));
+        when(bookService.getBookReference(10L)).thenReturn(book);
+        when(holdRepository.save(any(Hold.class))).thenAnswer(i -> {
+            Hold hold = i.getArgument(0);
+            hold.setId(5L);
+            return hold;
+        });
+        when(holdRepository.deleteHold(5L)).thenReturn(1);
+
+        // When
+        QueuedHold placed = holdService.placeHold(2L, 10L);
+
+        // Then
+        assertThat(placed.id()).isEqualTo(5L);
+        assertThat(holdService.claimNext(10L)).contains(placed);
+    }
+
+    @Test
+    void placeHoldShouldRejectBooksWithACopyOnTheShelf() {
+        // Given
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(Member.builder().id(1L).build()));
+        when(bookService.getBookSummary(10L)).thenReturn(Optional.of(summary(10L, 1)));
+
+        // When/Then
+        assertThatThrownBy(() -> holdService.placeHold(1L, 10L))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Book is available");
+        verify(holdRepository, never()).save(any(Hold.class));
+    }
+
+    @Test
+    void placeHoldShouldRejectASecondHoldOnTheSameBook() {
+        // Given
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(Member.builder().id(1L).build()));
+        when(bookService.getBookSummary(10L)).thenReturn(Optional.of(summary(10L, 0)));
+        when(holdRepository.existsByBookIdAndMemberId(10L, 1L)).thenReturn(true);
+
+        // When/Then
+        assertThatThrownBy(() -> holdService.placeHold(1L, 10L))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Member already holds this book");
+    }
+
+    @Test
+    void cancelHoldShouldThrowExceptionWhenNoHoldExists() {
+        // Given
+        when(holdRepository.deleteHold(10L, 1L)).thenReturn(0);
+
+        // When/Then
+        assertThatThrownBy(() -> holdService.cancelHold(1L, 10L))
+            .isInstanceOf(NotFoundException.class)
+            .hasMessage("No hold found");
+    }
+
+    private static BookSummary summary(long id, int availableCopies) {
+        return new BookSummary(id, "isbn-" + id, "Title", "Author", availableCopies, 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(jdbcTemplate);
+    }
+
+    @Test
+    void untrackedTitleShouldBePassedThroughToDatabase() {
+        // When / Then
+        assertThat(inventoryService.tryReserve(1L)).isTrue();
+        assertThat(inventoryService.isAnyCopyAvailable(1L)).isTrue();
+    }
+
+    @Test
+    void tryReserveShouldHandOutEachCopyOnce() {
+        // Given
+        inventoryService.track(1L, 2);
+
+        // When / Then
+        assertThat(inventoryService.tryReserve(1L)).isTrue();
+        assertThat(inventoryService.tryReserve(1L)).isTrue();
+        assertThat(inventoryService.tryReserve(1L)).isFalse();
+        assertThat(inventoryService.isAnyCopyAvailable(1L)).isFalse();
+
+        // When
+        inventoryService.releaseAfterCommit(1L);
+
+        // Then
+        assertThat(inventoryService.isAnyCopyAvailable(1L)).isTrue();
+    }
+
+    @Test
+    void correctShouldOnlyOverwriteTrackedTitles() {
+        // Given
+        inventoryService.track(1L, 3);
+
+        // When
+        inventoryService.correct(1L, 0);
+        inventoryService.correct(2L, 0);
+
+        // Then
+        assertThat(inventoryService.isAnyCopyAvailable(1L)).isFalse();
+        assertThat(inventoryService.isAnyCopyAvailable(2L)).isTrue();
+    }
+
+    @Test
+    void forgetShouldDropTheCounterEvenWhenTheTransactionRollsBack() {
+        // Given
+        inventoryService.track(1L, 1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(inventoryService.tryReserve(1L)).isTrue();
+            inventoryService.forget(1L);
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertThat(inventoryService.getAvailableCopies(1L)).isEqualTo(-1);
+        assertThat(inventoryService.tryReserve(1L)).isTrue();
+    }
+
+    @Test
+    void reconcileShouldReloadCountersAndDropDeletedTitles() throws Exception {
+        // Given - title 1 drifted, title 2 is untracked and title 3 no longer exists
+        inventoryService.track(1L, 5);
+        inventoryService.track(3L, 1);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(1L, 2L);
+        when(row.getInt(2)).thenReturn(0, 4);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        // When
+        int corrected = inventoryService.reconcile();
+
+        // Then
+        assertThat(corrected).isEqualTo(2);
+        assertThat(inventoryService.isAnyCopyAvailable(1L)).isFalse();
+        assertThat(inventoryService.tryReserve(2L)).isTrue();
+        assertThat(inventoryService.isAnyCopyAvailable(3L)).isTrue();
+    }
+
+    @Test
+    void reconcileShouldKeepAReturnThatCommitsWhileTheTableIsRead() throws Exception {
+        // Given - both rows are read before the returns commit; title 2 has no counter yet
+        inventoryService.track(1L, 0);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(1L, 2L);
+        when(row.getInt(2)).thenReturn(0, 0);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            inventoryService.releaseAfterCommit(1L);
+            inventoryService.releaseAfterCommit(2L);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        // When
+        int corrected = inventoryService.reconcile();
+
+        // Then - the stale rows overwrite neither the returned copy nor create a counter without it
+        assertThat(corrected).isZero();
+        assertThat(inventoryService.getAvailableCopies(1L)).isEqualTo(1);
+        assertThat(inventoryService.getAvailableCopies(2L)).isEqualTo(-1);
+    }
+}
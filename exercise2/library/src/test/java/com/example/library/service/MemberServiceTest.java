@@ -1,11 +1,14 @@
 package com.example.library.service;
 
+import com.example.library.model.CursorPage;
 import com.example.library.model.Member;
+import com.example.library.model.MemberSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import java.util.List;
 import java.util.Optional;
 
@@ -70,6 +73,22 @@ class MemberServiceTest {
             .containsExactly("John", "Jane");
     }
 
+    @Test
+    void getMemberPageShouldFetchOneExtraRowToDetectNextPage() {
+        // Given
+        when(memberRepository.findSummaryPage(10L, Limit.of(3))).thenReturn(List.of(
+            new MemberSummary(11L, "John", "john@example.com", "123"),
+            new MemberSummary(12L, "Jane", "jane@example.com", "456"),
+            new MemberSummary(13L, "Jim", "jim@example.com", "789")));
+
+        // When
+        CursorPage<MemberSummary> page = memberService.getMemberPage(10L, 2);
+
+        // Then
+        assertThat(page.items()).extracting(MemberSummary::name).containsExactly("John", "Jane");
+        assertThat(page.nextCursor()).isEqualTo(12L);
+    }
+
     @Test
     void getMemberByIdShouldReturnMemberWhenExists() {
         // Given
@@ -0,0 +1,137 @@
+package com.example.library.service;
+
+import com.example.library.model.OpenLoan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private OverdueService overdueService;
+
+    @BeforeEach
+    void setUp() {
+        overdueService = new OverdueService(jdbcTemplate);
+        ReflectionTestUtils.setField(overdueService, "finePerDayCents", 25);
+        ReflectionTestUtils.setField(overdueService, "maxFineCents", 100);
+    }
+
+    @Test
+    void findOverdueShouldReturnLoansDueBeforeNowEarliestFirst() {
+        // Given
+        var lateToday = new OpenLoan(1L, 1L, 10L, NOW.minusHours(1));
+        var lastWeek = new OpenLoan(2L, 2L, 11L, NOW.minusDays(7));
+        var laterToday = new OpenLoan(3L, 1L, 12L, NOW.plusHours(1));
+        var nextWeek = new OpenLoan(4L, 3L, 13L, NOW.plusDays(7));
+        List.of(lateToday, lastWeek, laterToday, nextWeek).forEach(overdueService::track);
+
+        // When
+        List<OpenLoan> overdue = overdueService.findOverdue(NOW);
+
+        // Then
+        assertThat(overdue).containsExactly(lastWeek, lateToday);
+    }
+
+    @Test
+    void findDueWithinShouldReturnOnlyLoansNotYetOverdueInsideTheWindow() {
+        // Given
+        var overdue = new OpenLoan(1L, 1L, 10L, NOW.minusHours(1));
+        var tomorrow = new OpenLoan(2L, 1L, 11L, NOW.plusDays(1));
+        var edgeOfWindow = new OpenLoan(3L, 2L, 12L, NOW.plusDays(3));
+        var pastWindow = new OpenLoan(4L, 2L, 13L, NOW.plusDays(3).plusMinutes(1));
+        List.of(overdue, tomorrow, edgeOfWindow, pastWindow).forEach(overdueService::track);
+
+        // When
+        List<OpenLoan> dueSoon = overdueService.findDueWithin(NOW, 3);
+
+        // Then
+        assertThat(dueSoon).containsExactly(tomorrow, edgeOfWindow);
+    }
+
+    @Test
+    void untrackShouldDropOnlyTheReturnedLoans() {
+        // Given - member 1 has two copies of book 10
+        overdueService.track(new OpenLoan(1L, 1L, 10L, NOW.minusDays(2)));
+        overdueService.track(new OpenLoan(2L, 1L, 11L, NOW.minusDays(2)));
+        overdueService.track(new OpenLoan(3L, 2L, 10L, NOW.minusDays(2)));
+        overdueService.track(new OpenLoan(4L, 1L, 10L, NOW.minusDays(1)));
+
+        // When
+        overdueService.untrack(Set.of(1L));
+
+        // Then
+        assertThat(overdueService.findOverdue(NOW))
+            .extracting(OpenLoan::id)
+            .containsExactly(2L, 3L, 4L);
+        assertThat(overdueService.openLoans()).isEqualTo(3);
+    }
+
+    @Test
+    void sweepShouldWriteOneBatchAndCountOnlyNewNotices() {
+        // Given
+        overdueService.track(new OpenLoan(1L, 1L, 10L, NOW.minusDays(2)));
+        overdueService.track(new OpenLoan(2L, 2L, 11L, NOW.minusDays(1)));
+        overdueService.track(new OpenLoan(3L, 2L, 12L, NOW.plusDays(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), eq(2), any()))
+            .thenReturn(new int[][] {{1, 0}});
+
+        // When
+        int issued = overdueService.sweep(NOW);
+
+        // Then
+        assertThat(issued).isEqualTo(1);
+        verify(jdbcTemplate).batchUpdate(anyString(), any(List.class), eq(2), any());
+    }
+
+    @Test
+    void sweepShouldSkipTheDatabaseWhenNothingIsOverdue() {
+        // Given
+        overdueService.track(new OpenLoan(1L, 1L, 10L, NOW.plusDays(1)));
+
+        // When
+        int issued = overdueService.sweep(NOW);
+
+        // Then
+        assertThat(issued).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class), anyInt(), any());
+    }
+
+    @Test
+    void daysOverdueShouldCountStartedDaysWithoutAddingOneOnTheBoundary() {
+        // Given
+        LocalDateTime due = NOW.minusDays(2);
+
+        // When / Then
+        assertThat(OverdueService.daysOverdue(new OpenLoan(1L, 1L, 10L, due), NOW)).isEqualTo(2);
+        assertThat(OverdueService.daysOverdue(new OpenLoan(1L, 1L, 10L, due.minusMinutes(1)), NOW)).isEqualTo(3);
+        assertThat(OverdueService.daysOverdue(new OpenLoan(1L, 1L, 10L, NOW.minusMinutes(1)), NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void fineShouldGrowPerDayUpToTheCap() {
+        assertThat(overdueService.fineCents(1)).isEqualTo(25);
+        assertThat(overdueService.fineCents(3)).isEqualTo(75);
+        assertThat(overdueService.fineCents(30)).isEqualTo(100);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.library.util;
+
+import com.example.library.model.Book;
+import com.example.library.model.Member;
+import com.example.library.util.BulkImporter.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkImporter bulkImporter;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bulkImporter = new BulkImporter(jdbcTemplate, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(bulkImporter, "chunkSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooksShouldWriteFixedSizeChunksInSeparateTransactions() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenAnswer(invocation -> {
+                Collection<?> chunk = invocation.getArgument(1);
+                batchSizes.add(chunk.size());
+                return new int[0][];
+            });
+        var books = IntStream.range(0, 5)
+            .mapToObj(i -> Book.builder().isbn("isbn-" + i).title("Title " + i).author("Author").available(true).build())
+            .iterator();
+
+        // When
+        ImportResult result = bulkImporter.importBooks(books);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.name()).isEqualTo("books");
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO books"), anyCollection(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importMembersShouldNotTouchDatabaseWhenSourceIsEmpty() {
+        // When
+        ImportResult result = bulkImporter.importMembers(List.<Member>of().iterator());
+
+        // Then
+        assertThat(result.rows()).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+}
@@ -4,8 +4,9 @@ import com.example.library.model.Book;
 import com.example.library.model.Member;
 import com.example.library.service.BookService;
 import com.example.library.service.MemberService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.library.util.BulkImporter.ImportResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,14 +15,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @ExtendWith(MockitoExtension.class)
 class DataLoaderTest {
@@ -33,83 +38,127 @@ class DataLoaderTest {
     private MemberService memberService;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private BulkImporter bulkImporter;
 
     @TempDir
     Path tempDir;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private DataLoader dataLoader;
 
     @BeforeEach
     void setUp() {
-        dataLoader = new DataLoader(bookService, memberService, objectMapper);
+        dataLoader = new DataLoader(bookService, memberService, new ObjectMapper(), bulkImporter, meterRegistry);
         System.setProperty("user.dir", tempDir.toString());
     }
 
     @Test
-    void loadInitialDataShouldLoadBooksAndMembersWhenDatabaseIsEmpty() throws Exception {
+    void loadInitialDataShouldStreamBooksAndMembersIntoBulkImporterWhenDatabaseIsEmpty() throws Exception {
         // Given
-        when(bookService.getAllBooks()).thenReturn(Arrays.asList());
-        when(memberService.getAllMembers()).thenReturn(Arrays.asList());
-        
-        List<Book> books = Arrays.asList(
-            Book.builder().title("Book 1").author("Author 1").isbn("123").build(),
-            Book.builder().title("Book 2").author("Author 2").isbn("456").build()
-        );
-        
-        List<Member> members = Arrays.asList(
-            Member.builder().name("John").email("john@example.com").phone("123").build(),
-            Member.builder().name("Jane").email("jane@example.com").phone("456").build()
-        );
+        when(bookService.hasBooks()).thenReturn(false);
+        when(memberService.hasMembers()).thenReturn(false);
 
         Path dataDir = tempDir.resolve("data");
         Files.createDirectories(dataDir);
-        Path booksFile = dataDir.resolve("books.json");
-        Path membersFile = dataDir.resolve("members.xml");
-        
-        Files.createFile(booksFile);
-        Files.createFile(membersFile);
-
-        when(objectMapper.readValue(any(java.io.File.class), any(TypeReference.class)))
-            .thenReturn(books);
-        Members membersWrapper = new Members();
-        membersWrapper.setMembers(members);
-        
+        Files.writeString(dataDir.resolve("books.json"), """
+            [
+              {"isbn": "123", "title": "Book 1", "author": "Author 1", "genre": "Fiction", "available": true},
+              {"isbn": "456", "title": "Book 2", "author": "Author 2", "genre": "Poetry", "available": true}
+            ]
+            """);
+        Files.writeString(dataDir.resolve("members.xml"), """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <members>
+                <member>
+                    <memberId>d290f1ee-6c54-4b01-90e6-d701748f0851</memberId>
+                    <name>John</name>
+                    <email>john@example.com</email>
+                    <phone>123</phone>
+                </member>
+                <member>
+                    <name>Jane</name>
+                    <email>jane@example.com</email>
+                    <phone>456</phone>
+                </member>
+            </members>
+            """);
+
+        List<Book> importedBooks = new ArrayList<>();
+        List<Member> importedMembers = new ArrayList<>();
+        when(bulkImporter.importBooks(any())).thenAnswer(invocation -> {
+            Iterator<Book> books = invocation.getArgument(0);
+            books.forEachRemaining(importedBooks::add);
+            return new ImportResult("books", importedBooks.size(), Duration.ZERO);
+        });
+        when(bulkImporter.importMembers(any())).thenAnswer(invocation -> {
+            Iterator<Member> members = invocation.getArgument(0);
+            members.forEachRemaining(importedMembers::add);
+            return new ImportResult("members", importedMembers.size(), Duration.ZERO);
+        });
+
         // When
         dataLoader.loadInitialData();
 
         // Then
-        verify(bookService, times(2)).addBook(any(Book.class));
-        verify(memberService, times(1)).getAllMembers();
+        assertThat(importedBooks)
+            .extracting("isbn", "title", "available")
+            .containsExactly(
+                tuple("123", "Book 1", true),
+                tuple("456", "Book 2", true));
+        assertThat(importedMembers)
+            .extracting("name", "email", "phone")
+            .containsExactly(
+                tuple("John", "john@example.com", "123"),
+                tuple("Jane", "jane@example.com", "456"));
+        verify(bookService).reloadIndexes();
+        assertThat(meterRegistry.get("library.import.rows").tag("source", "books").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("library.import").tag("source", "members").timer().count()).isEqualTo(1);
     }
 
     @Test
     void loadInitialDataShouldSkipLoadingWhenDatabaseNotEmpty() {
         // Given
-        when(bookService.getAllBooks()).thenReturn(Arrays.asList(
-            Book.builder().title("Existing Book").build()
-        ));
+        when(bookService.hasBooks()).thenReturn(true);
 
         // When
         dataLoader.loadInitialData();
 
         // Then
-        verify(bookService, times(1)).getAllBooks();
-        verify(memberService, times(0)).getAllMembers();
-        verify(bookService, times(0)).addBook(any(Book.class));
-        verify(memberService, times(0)).registerMember(any(), any(), any());
+        verify(bookService, times(1)).hasBooks();
+        verify(memberService, never()).hasMembers();
+        verify(bookService, never()).getAllBooks();
+        verify(bulkImporter, never()).importBooks(any());
+        verify(bulkImporter, never()).importMembers(any());
     }
 
     @Test
     void loadBooksShouldHandleFileNotFoundGracefully() {
         // Given
-        when(bookService.getAllBooks()).thenReturn(Arrays.asList());
-        when(memberService.getAllMembers()).thenReturn(Arrays.asList());
+        when(bookService.hasBooks()).thenReturn(false);
+        when(memberService.hasMembers()).thenReturn(false);
+
+        // When
+        dataLoader.loadInitialData();
+
+        // Then
+        verify(bulkImporter, never()).importBooks(any());
+        verify(bulkImporter, never()).importMembers(any());
+    }
+
+    @Test
+    void loadBooksShouldSkipImportForEmptyArray() throws Exception {
+        // Given
+        when(bookService.hasBooks()).thenReturn(false);
+        when(memberService.hasMembers()).thenReturn(false);
+        Path dataDir = tempDir.resolve("data");
+        Files.createDirectories(dataDir);
+        Files.writeString(dataDir.resolve("books.json"), "[]");
 
         // When
         dataLoader.loadInitialData();
 
         // Then
-        verify(bookService, times(0)).addBook(any(Book.class));
+        verify(bulkImporter, never()).importBooks(any());
     }
 }